@@ -0,0 +1,109 @@
+package com.study.datajpa.benchmark;
+
+import com.study.datajpa.DataJpaApplication;
+import com.study.datajpa.support.AuditingClock;
+import com.study.datajpa.support.AuditingContext;
+import com.study.datajpa.support.AuditingFlushInterceptor;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 엔티티 하나당 auditing 비용 비교 (ENTITIES_PER_FLUSH개의 엔티티를 한 번에 flush하는 상황)
+ * - perEntity: 기존 방식. 엔티티마다 UUID.randomUUID()(SecureRandom) + LocalDateTime.now()
+ * - perFlush: AuditingContext + AuditingClock. 작업자는 한 번, 시간은 flush당 한 번.
+ *             실제 트랜잭션 안에서 AuditingClock.now()를 호출하므로 interceptor를 찾는 비용까지 포함한다
+ * - perEntityThreadLocalRandom: 작업자를 매번 만들더라도 SecureRandom 대신 ThreadLocalRandom을 쓰는 경우
+ *
+ * @Threads(4): 여러 요청 스레드가 동시에 insert할 때의 SecureRandom 경합까지 포함
+ * 실행: ./gradlew jmh -PjmhIncludes=AuditingBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class AuditingBenchmark {
+
+    private static final int ENTITIES_PER_FLUSH = 100; // hibernate.jdbc.batch_size
+
+    @State(Scope.Benchmark)
+    public static class Application {
+        ConfigurableApplicationContext context;
+        AuditingClock auditingClock;
+        PlatformTransactionManager transactionManager;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            context = new SpringApplicationBuilder(DataJpaApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .profiles("embedded")
+                    .run();
+            auditingClock = context.getBean(AuditingClock.class);
+            transactionManager = context.getBean(PlatformTransactionManager.class);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+    // 스레드마다 iteration 동안 트랜잭션(= 세션, AuditingFlushInterceptor) 하나를 열어 둔다. 트랜잭션 시작/커밋 비용은 측정에서 뺀다
+    @State(Scope.Thread)
+    public static class InTransaction {
+        TransactionStatus status;
+
+        @Setup(Level.Iteration)
+        public void begin(Application application) {
+            status = application.transactionManager.getTransaction(new DefaultTransactionDefinition());
+        }
+
+        @TearDown(Level.Iteration)
+        public void rollback(Application application) {
+            application.transactionManager.rollback(status);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENTITIES_PER_FLUSH)
+    public void perEntity(Blackhole blackhole) {
+        for (int i = 0; i < ENTITIES_PER_FLUSH; i++) {
+            blackhole.consume(UUID.randomUUID().toString());
+            blackhole.consume(LocalDateTime.now());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENTITIES_PER_FLUSH)
+    public void perEntityThreadLocalRandom(Blackhole blackhole) {
+        for (int i = 0; i < ENTITIES_PER_FLUSH; i++) {
+            blackhole.consume(AuditingContext.randomUuid().toString());
+            blackhole.consume(LocalDateTime.now());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENTITIES_PER_FLUSH)
+    public void perFlush(Application application, InTransaction tx, Blackhole blackhole) {
+        String auditor = AuditingContext.randomUuid().toString();
+        for (int i = 0; i < ENTITIES_PER_FLUSH; i++) {
+            blackhole.consume(auditor);
+            blackhole.consume(application.auditingClock.now());
+        }
+        // 변경된 엔티티가 없으면 flush해도 postFlush가 불리지 않으므로 flush가 끝난 것처럼 직접 알린다
+        AuditingFlushInterceptor.current().postFlush(Collections.emptyIterator());
+    }
+}
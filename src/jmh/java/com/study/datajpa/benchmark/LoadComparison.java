@@ -0,0 +1,163 @@
+package com.study.datajpa.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * platform thread(Tomcat 기본 스레드 풀) vs virtual thread 부하 비교
+ *
+ * 애플리케이션을 모드별로 별도 프로세스로 띄운 뒤, concurrency개의 클라이언트 스레드가 seconds초 동안 GET /members/1을 반복 호출한다.
+ * 처리량(req/s), 지연시간(p50, p99), 503(DbConcurrencyLimitFilter) 및 오류 수를 출력한다.
+ * 스레드 모델만 비교하도록 두 모드 모두 같은 DbConcurrencyLimitFilter를 켠다 (virtual-threads 프로필과 같은 설정)
+ *
+ * VirtualThreadConfig(src/main/java21)는 -PjavaVersion=21로 빌드했을 때만 classpath에 있다.
+ * 없으면 virtual 모드도 platform thread로 돌아서 같은 것을 두 번 재는 것이므로 시작하기 전에 실패한다
+ *
+ * 실행: ./gradlew loadComparison -PjavaVersion=21 -Pconcurrency=1000 -Pseconds=30
+ * in-memory H2는 지연이 거의 없어서 차이가 작게 보인다. 실제 DB에 가까운 결과를 보려면
+ * 환경 변수 LOAD_DATASOURCE_URL로 tcp H2(jdbc:h2:tcp://...)나 다른 DB를 지정한다
+ */
+public class LoadComparison {
+
+    private static final int PORT = 18081;
+    private static final String VIRTUAL_THREAD_CONFIG = "com.study.datajpa.config.VirtualThreadConfig";
+    private static final String DB_CONCURRENCY_LIMIT = "--app.db-concurrency-limit.enabled=true";
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        requireVirtualThreads();
+
+        List<String> results = new ArrayList<>();
+        results.add(run("platform", List.of("--spring.profiles.active=embedded", DB_CONCURRENCY_LIMIT), concurrency, seconds));
+        results.add(run("virtual", List.of("--spring.profiles.active=embedded,virtual-threads"), concurrency, seconds));
+
+        System.out.println();
+        System.out.printf("%-10s %12s %10s %10s %8s %8s%n", "mode", "req/s", "p50(ms)", "p99(ms)", "503", "error");
+        results.forEach(System.out::println);
+    }
+
+    private static void requireVirtualThreads() {
+        if (Runtime.version().feature() < 21) {
+            throw new IllegalStateException("virtual threads need JDK 21+, but running on " + Runtime.version());
+        }
+        try {
+            Class.forName(VIRTUAL_THREAD_CONFIG, false, LoadComparison.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(VIRTUAL_THREAD_CONFIG + " is not on the classpath. run with -PjavaVersion=21", e);
+        }
+    }
+
+    private static String run(String mode, List<String> appArgs, int concurrency, int seconds) throws Exception {
+        Process app = start(appArgs);
+        try {
+            HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+            waitUntilReady(client);
+
+            URI uri = URI.create("http://localhost:" + PORT + "/members/1");
+            long[][] latencies = new long[concurrency][];
+            AtomicLong rejected = new AtomicLong();
+            AtomicLong errors = new AtomicLong();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+            ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                int index = i;
+                clients.execute(() -> latencies[index] = drive(client, uri, deadline, rejected, errors));
+            }
+            clients.shutdown();
+            clients.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+
+            long[] all = Arrays.stream(latencies).filter(l -> l != null).flatMapToLong(Arrays::stream).sorted().toArray();
+            double throughput = all.length / (double) seconds;
+            return String.format("%-10s %12.1f %10.2f %10.2f %8d %8d", mode, throughput,
+                    percentile(all, 0.50), percentile(all, 0.99), rejected.get(), errors.get());
+        } finally {
+            app.destroy();
+            app.waitFor(30, TimeUnit.SECONDS);
+        }
+    }
+
+    // 성공한 요청의 지연시간(ns)만 모은다
+    private static long[] drive(HttpClient client, URI uri, long deadline, AtomicLong rejected, AtomicLong errors) {
+        long[] buffer = new long[1024];
+        int size = 0;
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build();
+        while (System.nanoTime() < deadline) {
+            long start = System.nanoTime();
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 503) {
+                    rejected.incrementAndGet();
+                    continue;
+                }
+                if (response.statusCode() != 200) {
+                    errors.incrementAndGet();
+                    continue;
+                }
+            } catch (IOException e) {
+                errors.incrementAndGet();
+                continue;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (size == buffer.length) {
+                buffer = Arrays.copyOf(buffer, size * 2);
+            }
+            buffer[size++] = System.nanoTime() - start;
+        }
+        return Arrays.copyOf(buffer, size);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    private static Process start(List<String> appArgs) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add("com.study.datajpa.DataJpaApplication");
+        command.add("--server.port=" + PORT);
+        command.addAll(appArgs);
+        String datasourceUrl = System.getenv("LOAD_DATASOURCE_URL");
+        if (datasourceUrl != null) {
+            command.add("--spring.datasource.url=" + datasourceUrl);
+        }
+        return new ProcessBuilder(command).inheritIO().start();
+    }
+
+    private static void waitUntilReady(HttpClient client) throws InterruptedException {
+        HttpRequest hello = HttpRequest.newBuilder(URI.create("http://localhost:" + PORT + "/hello")).GET().build();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(120);
+        while (System.nanoTime() < deadline) {
+            try {
+                if (client.send(hello, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException ignored) {
+                // 아직 기동 중
+            }
+            Thread.sleep(200);
+        }
+        throw new IllegalStateException("application did not start in 120 seconds");
+    }
+}
@@ -0,0 +1,230 @@
+package com.study.datajpa.benchmark;
+
+import com.study.datajpa.DataJpaApplication;
+import com.study.datajpa.dto.PMemberDTO;
+import com.study.datajpa.entity.Member;
+import com.study.datajpa.entity.Team;
+import com.study.datajpa.repository.datajpa.MemberRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.jpa.boot.spi.JpaSettings;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * MemberRepository의 조회 전략별 성능 비교
+ * - fetch join / @EntityGraph / findAll() + lazy loading(N + 1) / DTO 조회 / readOnly hint / readOnly 트랜잭션
+ *
+ * 실행: ./gradlew jmh -PjmhIncludes=MemberFetchStrategyBenchmark
+ * 결과 해석
+ * - Throughput(ops/s): 기본 리포트
+ * - gc.alloc.rate.norm(B/op): build.gradle의 profilers = ['gc']
+ * - sqlStatements / invocations: 한 번 호출할 때 나가는 SQL 개수 (AuxCounters는 합계로 리포트되므로 나눠서 본다)
+ *
+ * findAllLazyTeam은 N + 1의 기준값이므로 2차 캐시와 batch fetch(default_batch_fetch_size, @BatchSize)를 끈 별도 컨텍스트(NoBatchFetch)에서 실행한다.
+ * 기본 설정에서는 team을 2차 캐시에서 꺼내거나 IN 쿼리 한 번으로 묶어서 가져오므로 N + 1이 보이지 않는다
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MemberFetchStrategyBenchmark {
+
+    @Param({"10", "100"})
+    int teamCount;
+
+    @Param({"1000"})
+    int memberCount;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private TransactionTemplate readWriteTx;
+    private TransactionTemplate readOnlyTx;
+    private Statistics statistics;
+    private String lookupUsername;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class SqlCounter {
+        public long sqlStatements;
+        public long invocations;
+    }
+
+    /**
+     * 2차 캐시와 batch fetch를 끈 컨텍스트. in-memory DB도 따로 쓴다 (같은 DB를 쓰면 ddl-auto가 다른 컨텍스트의 테이블을 다시 만든다)
+     * @BatchSize는 설정으로 끌 수 없으므로 SessionFactory를 만들기 전에 Integrator로 매핑의 batch size를 1로 바꾼다
+     */
+    @State(Scope.Benchmark)
+    public static class NoBatchFetch {
+        private ConfigurableApplicationContext context;
+        private MemberRepository memberRepository;
+        private TransactionTemplate tx;
+        private Statistics statistics;
+
+        @Setup(Level.Trial)
+        public void setUp(MemberFetchStrategyBenchmark benchmark) {
+            context = new SpringApplicationBuilder(DataJpaApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .profiles("embedded")
+                    .properties("spring.jpa.properties.hibernate.generate_statistics=true")
+                    .initializers(context -> context.getBeanFactory()
+                            .registerSingleton("noBatchFetchCustomizer", disableBatchFetch()))
+                    // properties()는 기본값이라 application.yml보다 우선순위가 낮다. yml에 있는 설정은 커맨드 라인 인자로 덮어쓴다
+                    .run("--spring.datasource.url=jdbc:h2:mem:datajpa_no_batch_fetch;DB_CLOSE_DELAY=-1",
+                            "--spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                            "--spring.jpa.properties.hibernate.default_batch_fetch_size=1");
+
+            memberRepository = context.getBean(MemberRepository.class);
+            statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+            tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+            benchmark.seed(tx, context.getBean(EntityManager.class));
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            context.close();
+        }
+
+        private static HibernatePropertiesCustomizer disableBatchFetch() {
+            Integrator integrator = new Integrator() {
+                @Override
+                public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+                    metadata.getEntityBindings().forEach(entity -> entity.setBatchSize(1));
+                    metadata.getCollectionBindings().forEach(collection -> collection.setBatchSize(1));
+                }
+
+                @Override
+                public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+                }
+            };
+            IntegratorProvider integratorProvider = () -> List.of(integrator);
+            return hibernateProperties -> hibernateProperties.put(JpaSettings.INTEGRATOR_PROVIDER, integratorProvider);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(DataJpaApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("embedded")
+                .properties("spring.jpa.properties.hibernate.generate_statistics=true")
+                .run();
+
+        memberRepository = context.getBean(MemberRepository.class);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        readWriteTx = new TransactionTemplate(transactionManager);
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+
+        seed(readWriteTx, context.getBean(EntityManager.class));
+        lookupUsername = "member" + (memberCount / 2);
+    }
+
+    void seed(TransactionTemplate tx, EntityManager em) {
+        tx.executeWithoutResult(status -> {
+            List<Team> teams = new ArrayList<>();
+            for (int i = 0; i < teamCount; i++) {
+                Team team = new Team("team" + i);
+                em.persist(team);
+                teams.add(team);
+            }
+            for (int i = 0; i < memberCount; i++) {
+                em.persist(new Member("member" + i, i % 100, teams.get(i % teamCount)));
+            }
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void fetchJoin(SqlCounter counter, Blackhole bh) {
+        measure(readWriteTx, counter, bh, () -> touchTeams(memberRepository.findMemberFetchJoin()));
+    }
+
+    @Benchmark
+    public void entityGraph(SqlCounter counter, Blackhole bh) {
+        measure(readWriteTx, counter, bh, () -> touchTeams(memberRepository.findMemberBy()));
+    }
+
+    // N + 1: member 1번 + team 개수만큼 lazy loading (NoBatchFetch 컨텍스트)
+    @Benchmark
+    public void findAllLazyTeam(NoBatchFetch noBatchFetch, SqlCounter counter, Blackhole bh) {
+        measure(noBatchFetch.statistics, noBatchFetch.tx, counter, bh, () -> touchTeams(noBatchFetch.memberRepository.findAll()));
+    }
+
+    @Benchmark
+    public void dtoProjection(SqlCounter counter, Blackhole bh) {
+        measure(readWriteTx, counter, bh, () -> {
+            List<PMemberDTO> results = memberRepository.findMemberDTO();
+            return results.size();
+        });
+    }
+
+    // readOnly hint, readOnly 트랜잭션의 비교 대상. 읽기-쓰기 트랜잭션에서 snapshot을 만들고 커밋할 때 dirty checking(flush)을 한다
+    @Benchmark
+    public void findByUsername(SqlCounter counter, Blackhole bh) {
+        measure(readWriteTx, counter, bh, () -> memberRepository.findMemberByUsername(lookupUsername));
+    }
+
+    // 같은 읽기-쓰기 트랜잭션에서 쿼리에만 readOnly hint => snapshot, dirty checking 없음
+    @Benchmark
+    public void readOnlyHint(SqlCounter counter, Blackhole bh) {
+        measure(readWriteTx, counter, bh, () -> memberRepository.findReadOnlyByUsername(lookupUsername));
+    }
+
+    // 트랜잭션 전체를 readOnly로 (FlushMode.MANUAL + 읽기 전용 엔티티)
+    @Benchmark
+    public void readOnlyTransaction(SqlCounter counter, Blackhole bh) {
+        measure(readOnlyTx, counter, bh, () -> memberRepository.findMemberByUsername(lookupUsername));
+    }
+
+    /**
+     * 호출마다 새로운 트랜잭션(= 새로운 영속성 컨텍스트)에서 실행한다.
+     * 트랜잭션 밖에서 돌리면 lazy loading이 불가능하고, 하나의 영속성 컨텍스트를 재사용하면 1차 캐시 때문에 측정이 왜곡된다.
+     * readOnly 트랜잭션은 readOnlyTransaction만 사용한다. 나머지도 readOnly로 돌리면 readOnly hint의 차이가 사라진다
+     */
+    private void measure(TransactionTemplate tx, SqlCounter counter, Blackhole bh, Supplier<Object> query) {
+        measure(statistics, tx, counter, bh, query);
+    }
+
+    private static void measure(Statistics statistics, TransactionTemplate tx, SqlCounter counter, Blackhole bh, Supplier<Object> query) {
+        long before = statistics.getPrepareStatementCount();
+        bh.consume(tx.execute(status -> query.get()));
+        counter.sqlStatements += statistics.getPrepareStatementCount() - before;
+        counter.invocations++;
+    }
+
+    private static int touchTeams(List<Member> members) {
+        int length = 0;
+        for (Member member : members) {
+            length += member.getTeam().getName().length();
+        }
+        return length;
+    }
+}
@@ -0,0 +1,95 @@
+package com.study.datajpa.benchmark;
+
+import com.study.datajpa.DataJpaApplication;
+import com.study.datajpa.entity.Member;
+import com.study.datajpa.repository.datajpa.MemberRepository;
+import com.study.datajpa.support.OptimisticLockRetry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 경합이 있는 member 수정: 낙관적 락 + 재시도 vs 비관적 락(select for update)
+ *
+ * - hotRows: 8개 스레드가 동시에 수정하는 member 수. 1이면 모든 스레드가 같은 행을 두고 경합한다
+ * - trial이 끝나면 낙관적 락 충돌 횟수(Hibernate Statistics)를 출력한다
+ *
+ * 보통 경합이 적으면(hotRows가 크면) 락을 잡지 않는 낙관적 락이, 경합이 심하면 재시도 비용 때문에 비관적 락이 유리하다
+ * 실행: ./gradlew jmh -PjmhIncludes=MemberLockingBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class MemberLockingBenchmark {
+
+    @Param({"1", "8", "64"})
+    int hotRows;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private TransactionTemplate tx;
+    private OptimisticLockRetry optimisticLockRetry;
+    private Statistics statistics;
+    private List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(DataJpaApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("embedded")
+                .properties("spring.jpa.properties.hibernate.generate_statistics=true",
+                        "app.optimistic-lock-retry.max-attempts=1000") // 성공할 때까지 재시도
+                .run();
+
+        memberRepository = context.getBean(MemberRepository.class);
+        optimisticLockRetry = context.getBean(OptimisticLockRetry.class);
+        tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+
+        ids = new ArrayList<>();
+        for (int i = 0; i < hotRows; i++) {
+            ids.add(memberRepository.save(new Member("hot" + i, 0)).getId());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%n[hotRows=%d] optimistic lock failures: %d%n", hotRows, statistics.getOptimisticFailureCount());
+        context.close();
+    }
+
+    @Benchmark
+    public void optimistic() {
+        Long id = randomId();
+        optimisticLockRetry.executeWithoutResult(() -> increment(memberRepository.findById(id).orElseThrow()));
+    }
+
+    @Benchmark
+    public void pessimistic() {
+        Long id = randomId();
+        tx.executeWithoutResult(status -> increment(memberRepository.findByIdForUpdate(id).orElseThrow()));
+    }
+
+    private Long randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    private static void increment(Member member) {
+        member.setAge(member.getAge() + 1);
+    }
+}
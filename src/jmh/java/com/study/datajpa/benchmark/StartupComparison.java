@@ -0,0 +1,94 @@
+package com.study.datajpa.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 기동 방식별 time-to-first-request 비교
+ *
+ * 모드마다 runs번 애플리케이션을 새 프로세스로 띄우고, 프로세스 시작부터 GET /members/1이 처음 200으로 응답할 때까지의 시간을 잰다.
+ * (로그의 "Started ... in"과 달리 JVM 기동, 첫 요청에서의 lazy 초기화까지 포함 = 오토스케일링으로 뜬 인스턴스가 실제로 요청을 처리하기까지의 시간)
+ * - default: embedded 프로필
+ * - faststart: embedded + faststart 프로필 (lazy init, deferred 리포지토리, 백그라운드 데이터 입력)
+ * - faststart+cds: faststart + AppCDS 아카이브 (./gradlew cdsArchive로 만든 것)
+ *
+ * 실행: ./gradlew startupComparison -Pruns=5
+ * CDS는 아카이브를 만들 때와 같은 classpath(jar만)로 실행해야 하므로 Gradle이 startup.classpath, startup.cdsArchive를 넘겨준다
+ */
+public class StartupComparison {
+
+    private static final int PORT = 18082;
+
+    public static void main(String[] args) throws Exception {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        String classpath = System.getProperty("startup.classpath", System.getProperty("java.class.path"));
+        String cdsArchive = System.getProperty("startup.cdsArchive");
+
+        List<String> results = new ArrayList<>();
+        results.add(measure("default", classpath, List.of(), List.of("--spring.profiles.active=embedded"), runs));
+        results.add(measure("faststart", classpath, List.of(), List.of("--spring.profiles.active=embedded,faststart"), runs));
+        if (cdsArchive != null && new File(cdsArchive).exists()) {
+            results.add(measure("faststart+cds", classpath, List.of("-XX:SharedArchiveFile=" + cdsArchive),
+                    List.of("--spring.profiles.active=embedded,faststart"), runs));
+        }
+
+        System.out.println();
+        System.out.printf("%-14s %10s %10s %10s%n", "mode", "min(ms)", "p50(ms)", "max(ms)");
+        results.forEach(System.out::println);
+    }
+
+    private static String measure(String mode, String classpath, List<String> jvmArgs, List<String> appArgs, int runs) throws Exception {
+        long[] millis = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            millis[i] = timeToFirstRequest(classpath, jvmArgs, appArgs);
+        }
+        Arrays.sort(millis);
+        return String.format("%-14s %10d %10d %10d", mode, millis[0], millis[runs / 2], millis[runs - 1]);
+    }
+
+    private static long timeToFirstRequest(String classpath, List<String> jvmArgs, List<String> appArgs) throws Exception {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + PORT + "/members/1")).GET().build();
+
+        long start = System.nanoTime();
+        Process app = start(classpath, jvmArgs, appArgs);
+        try {
+            long deadline = start + TimeUnit.SECONDS.toNanos(120);
+            while (System.nanoTime() < deadline) {
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    }
+                } catch (IOException ignored) {
+                    // 아직 기동 중
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException("application did not respond in 120 seconds");
+        } finally {
+            app.destroy();
+            app.waitFor(30, TimeUnit.SECONDS);
+        }
+    }
+
+    private static Process start(String classpath, List<String> jvmArgs, List<String> appArgs) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.addAll(jvmArgs);
+        command.add("-cp");
+        command.add(classpath);
+        command.add("com.study.datajpa.DataJpaApplication");
+        command.add("--server.port=" + PORT);
+        command.addAll(appArgs);
+        return new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+    }
+}
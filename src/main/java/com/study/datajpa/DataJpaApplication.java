@@ -1,5 +1,6 @@
 package com.study.datajpa;
 
+import com.study.datajpa.support.AuditingContext;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
@@ -7,9 +8,8 @@ import org.springframework.data.domain.AuditorAware;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 
 import java.util.Optional;
-import java.util.UUID;
 
-@EnableJpaAuditing
+@EnableJpaAuditing(dateTimeProviderRef = "auditingDateTimeProvider") // 생성일/수정일은 AuditingContext의 시간 (AuditingConfig)
 @SpringBootApplication
 public class DataJpaApplication {
 
@@ -33,6 +33,7 @@ public class DataJpaApplication {
 //        };
 
         // 실제로는 UUID자리에 user_id를 인자로 전달하면 된다.
-        return () -> Optional.of(UUID.randomUUID().toString());
+        // 엔티티마다 호출되므로 트랜잭션당 한 번만 resolve하고, UUID.randomUUID()(SecureRandom) 대신 ThreadLocalRandom을 사용한다
+        return () -> Optional.of(AuditingContext.currentAuditor(() -> AuditingContext.randomUuid().toString()));
     }
 }
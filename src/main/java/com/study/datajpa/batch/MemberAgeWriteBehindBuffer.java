@@ -0,0 +1,180 @@
+package com.study.datajpa.batch;
+
+import com.study.datajpa.entity.Member;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * member.age 증가를 모아서 주기적으로 한 번에 반영한다 (write-behind)
+ *
+ * 같은 member의 age를 이벤트마다 트랜잭션 하나로 +1하면, 매번 행 락을 잡고 커밋을 기다려야 해서 hot row에서 병목이 생긴다.
+ * 대신 메모리에서 member_id별로 증가량을 모으고, flush-interval마다 member당 update 한 번(JDBC batch, 트랜잭션 하나)으로 반영한다
+ *
+ * - 증가: LongAdder(스트라이핑된 카운터)라서 같은 member를 여러 스레드가 동시에 증가시켜도 경합이 적다
+ * - flush: 카운터를 리셋하지 않고 "지금까지 반영한 값(flushed)"과의 차이만 반영한다. 따라서 flush 도중의 증가도 잃어버리지 않고,
+ *          update가 실패하면 flushed가 그대로이므로 다음 flush에서 다시 반영된다
+ * - 정리: 한동안 증가가 없는 카운터는 맵에서 지운다. 지우기 전에 카운터를 retire하는데, 증가 도중인 스레드가 있으면 retire하지 않고,
+ *         retire된 카운터를 잡은 add()는 새 카운터로 다시 시도한다. 따라서 지운 카운터에 늦게 들어온 증가가 사라지지 않는다
+ * - 종료 시(@PreDestroy) 남은 증가량을 반영한다
+ *
+ * 주의
+ * - 반영 전까지(최대 flush-interval) DB와 엔티티의 age는 증가 전 값이다. 필요하면 pendingDelta()를 더해서 읽을 것
+ * - 프로세스가 비정상 종료되면 반영되지 않은 증가량은 사라진다. 잃어버리면 안 되는 값에는 사용하지 말 것
+ */
+@Slf4j
+@Component
+public class MemberAgeWriteBehindBuffer {
+
+    private static final String UPDATE_SQL = "update member set age = age + ?, version = version + 1 where member_id = ?";
+    // JDBC 직접 수정은 이벤트가 발생하지 않으므로 team_stats도 갱신한다. 최솟값/최댓값은 알 수 없으므로 stale로 표시 (TeamStatsMaintenance.reconcile)
+    private static final String UPDATE_STATS_SQL = "update team_stats set age_sum = age_sum + ?, extrema_stale = true" +
+            " where team_id = (select team_id from member where member_id = ?)";
+    private static final int EVICT_AFTER_IDLE_FLUSHES = 3; // 이만큼 flush하는 동안 증가가 없으면 카운터를 지운다
+
+    private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+    private final List<Counter> evicted = new ArrayList<>(); // 지웠지만 반영에 실패한 카운터. 다음 flush에서 다시 반영한다
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate tx;
+    private final EntityManagerFactory emf;
+
+    public MemberAgeWriteBehindBuffer(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                      EntityManagerFactory emf) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.emf = emf;
+    }
+
+    public void increment(long memberId) {
+        add(memberId, 1);
+    }
+
+    public void add(long memberId, long delta) {
+        while (true) {
+            Counter counter = counters.computeIfAbsent(memberId, Counter::new);
+            if (counter.enter()) {
+                try {
+                    counter.adder.add(delta);
+                } finally {
+                    counter.exit();
+                }
+                return;
+            }
+            // flush가 막 retire한 카운터를 잡았다. 맵에서 빠지면 computeIfAbsent가 새 카운터를 만든다
+            counters.remove(memberId, counter);
+        }
+    }
+
+    // 아직 DB에 반영되지 않은 증가량
+    public long pendingDelta(long memberId) {
+        Counter counter = counters.get(memberId);
+        return counter == null ? 0 : counter.adder.sum() - counter.flushed;
+    }
+
+    @Scheduled(fixedDelayString = "${app.write-behind.flush-interval:1s}")
+    public synchronized void flush() {
+        List<Pending> pending = new ArrayList<>();
+        for (Counter counter : evicted) {
+            collect(counter, pending);
+        }
+        evicted.clear();
+        for (Counter counter : counters.values()) {
+            if (collect(counter, pending) || ++counter.idleFlushes < EVICT_AFTER_IDLE_FLUSHES || !counter.retire()) {
+                continue;
+            }
+            counters.remove(counter.memberId, counter);
+            // retire 직전에 끝난 증가가 있을 수 있다. retire 이후에는 더 이상 바뀌지 않으므로 한 번만 확인하면 된다
+            collect(counter, pending);
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        pending.sort(Comparator.comparingLong(p -> p.counter().memberId)); // id 순서로 update해서 데드락 방지
+        List<Object[]> args = pending.stream()
+                .map(p -> new Object[]{p.total() - p.counter().flushed, p.counter().memberId})
+                .toList();
+        try {
+            tx.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(UPDATE_SQL, args);
+                jdbcTemplate.batchUpdate(UPDATE_STATS_SQL, args);
+            });
+        } catch (RuntimeException e) {
+            // flushed를 갱신하지 않았으므로 다음 flush에서 다시 시도한다. 이미 지운 카운터도 다시 확인 대상에 넣는다
+            pending.stream().map(Pending::counter).filter(counter -> counters.get(counter.memberId) != counter).forEach(evicted::add);
+            log.warn("failed to flush {} member age deltas. will retry", pending.size(), e);
+            return;
+        }
+
+        for (Pending p : pending) {
+            p.counter().flushed = p.total();
+            p.counter().idleFlushes = 0;
+            emf.getCache().evict(Member.class, p.counter().memberId); // JDBC로 직접 수정했으므로 2차 캐시의 member는 예전 값이다
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    // 반영할 증가량이 있으면 pending에 넣고 true
+    private static boolean collect(Counter counter, List<Pending> pending) {
+        long total = counter.adder.sum();
+        if (total == counter.flushed) {
+            return false;
+        }
+        pending.add(new Pending(counter, total));
+        return true;
+    }
+
+    private record Pending(Counter counter, long total) {
+    }
+
+    private static class Counter {
+        private static final int RETIRED = -1;
+
+        private final long memberId;
+        private final LongAdder adder = new LongAdder();
+        private final AtomicInteger writers = new AtomicInteger(); // 증가 중인 스레드 수. RETIRED면 더 이상 증가를 받지 않는다
+        private volatile long flushed; // flush()(synchronized)에서만 변경
+        private int idleFlushes;
+
+        Counter(long memberId) {
+            this.memberId = memberId;
+        }
+
+        boolean enter() {
+            int current;
+            do {
+                current = writers.get();
+                if (current == RETIRED) {
+                    return false;
+                }
+            } while (!writers.compareAndSet(current, current + 1));
+            return true;
+        }
+
+        void exit() {
+            writers.decrementAndGet();
+        }
+
+        // 증가 중인 스레드가 없을 때만 성공한다
+        boolean retire() {
+            return writers.compareAndSet(0, RETIRED);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.study.datajpa.batch;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 큰 테이블에 대한 벌크 update를 id 범위로 나눠서 여러 개의 작은 트랜잭션으로 실행한다
+ *
+ * update Member m set m.age = m.age + 1 where m.age >= :age 를 한 번에 실행하면
+ * - 대상 행 전체의 락을 커밋할 때까지 잡고 있어서 다른 트랜잭션이 오래 기다리고
+ * - undo log가 대상 행 수만큼 커지며
+ * - 커넥션 하나, 코어 하나만 사용한다
+ *
+ * 여기서는 id를 chunkSize 단위의 구간([k * chunkSize, (k + 1) * chunkSize - 1])으로 나누고
+ * 구간마다 REQUIRES_NEW 트랜잭션으로 update한다. id는 유일하므로 한 chunk에서 update되는 행은 최대 chunkSize개다.
+ * chunk들은 parallelism 크기의 스레드 풀에서 동시에 실행된다 (커넥션 풀 크기보다 작게 잡을 것)
+ *
+ * update JPQL에는 반드시 "e.id between :fromId and :toId" 조건이 있어야 한다
+ * @Version이 있는 엔티티라면 "update versioned ..."로 작성해서 version도 증가시킬 것 (낙관적 락을 사용하는 트랜잭션과 함께 실행되므로)
+ *
+ * 재시작: chunk는 완료될 때마다 커밋되므로, 중간에 실패하면 Result.checkpoint()를 저장해뒀다가 Options.resumeFrom으로 넘기면
+ * 완료된 chunk는 건너뛰고 나머지만 실행한다. (age + 1처럼 멱등하지 않은 update도 두 번 적용되지 않는다)
+ */
+@Slf4j
+@Component
+public class RangePartitionedBulkUpdater {
+
+    private final EntityManager em;
+    private final TransactionTemplate chunkTransaction;
+
+    public RangePartitionedBulkUpdater(EntityManager em, PlatformTransactionManager transactionManager) {
+        this.em = em;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * @param entityName  id 범위를 구할 엔티티 (ex. "Member")
+     * @param updateJpql  :fromId, :toId 파라미터를 포함한 update JPQL
+     * @param parameters  그 외 파라미터
+     */
+    public Result execute(String entityName, String updateJpql, Map<String, Object> parameters,
+                          Options options, ProgressListener listener) {
+        Object[] bounds = (Object[]) em.createQuery("select min(e.id), max(e.id) from " + entityName + " e")
+                .getSingleResult();
+        Checkpoint checkpoint = options.resumeFrom() != null ? options.resumeFrom() : Checkpoint.start(options.chunkSize());
+        if (checkpoint.chunkSize() != options.chunkSize()) {
+            throw new IllegalArgumentException("chunkSize must be the same as the checkpoint's: " + checkpoint.chunkSize());
+        }
+        if (bounds[0] == null) {
+            return new Result(0, 0, 0, checkpoint, null);
+        }
+
+        List<Long> pending = new ArrayList<>();
+        long firstChunk = Math.max((Long) bounds[0], checkpoint.watermark() + 1) / options.chunkSize() * options.chunkSize();
+        for (long from = firstChunk; from <= (Long) bounds[1]; from += options.chunkSize()) {
+            if (from > checkpoint.watermark() && !checkpoint.completedChunks().contains(from)) {
+                pending.add(from);
+            }
+        }
+
+        ProgressTracker tracker = new ProgressTracker(checkpoint, firstChunk, pending.size());
+        ExecutorService executor = Executors.newFixedThreadPool(options.parallelism());
+        ExecutorCompletionService<Long> completion = new ExecutorCompletionService<>(executor);
+        AtomicBoolean failed = new AtomicBoolean();
+        try {
+            for (Long from : pending) {
+                completion.submit(() -> {
+                    if (failed.get()) {
+                        return null; // 다른 chunk가 실패하면 나머지는 시작하지 않는다
+                    }
+                    long to = from + options.chunkSize() - 1;
+                    Integer updated = chunkTransaction.execute(status -> {
+                        var query = em.createQuery(updateJpql)
+                                .setParameter("fromId", from)
+                                .setParameter("toId", to);
+                        parameters.forEach(query::setParameter);
+                        return query.executeUpdate();
+                    });
+                    listener.onProgress(tracker.completed(from, to, updated));
+                    return from;
+                });
+            }
+
+            Throwable failure = null;
+            for (int i = 0; i < pending.size(); i++) {
+                try {
+                    completion.take().get();
+                } catch (ExecutionException e) {
+                    failed.set(true);
+                    if (failure == null) {
+                        failure = e.getCause();
+                        log.warn("bulk update chunk failed. remaining chunks are skipped", failure);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    failed.set(true);
+                    failure = e;
+                    break;
+                }
+            }
+            return tracker.result(failure);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    public interface ProgressListener {
+        ProgressListener NONE = progress -> { };
+
+        void onProgress(Progress progress);
+    }
+
+    /**
+     * @param chunkSize   chunk 하나가 담당하는 id 구간의 크기 (= chunk당 최대 update 행 수)
+     * @param parallelism 동시에 실행할 chunk 수
+     * @param resumeFrom  이전 실행의 checkpoint. 없으면 null
+     */
+    public record Options(long chunkSize, int parallelism, Checkpoint resumeFrom) {
+        public Options {
+            if (chunkSize <= 0 || parallelism <= 0) {
+                throw new IllegalArgumentException("chunkSize and parallelism must be positive");
+            }
+        }
+
+        public static Options of(long chunkSize, int parallelism) {
+            return new Options(chunkSize, parallelism, null);
+        }
+
+        public Options resumeFrom(Checkpoint checkpoint) {
+            return new Options(chunkSize, parallelism, checkpoint);
+        }
+    }
+
+    /**
+     * 재시작 지점
+     * - watermark 이하의 id는 전부 완료
+     * - completedChunks: watermark보다 뒤에서 먼저 끝난 chunk의 시작 id (병렬로 실행되므로 순서대로 끝나지 않는다)
+     */
+    public record Checkpoint(long chunkSize, long watermark, Set<Long> completedChunks) {
+        public static Checkpoint start(long chunkSize) {
+            return new Checkpoint(chunkSize, Long.MIN_VALUE, Set.of());
+        }
+    }
+
+    public record Progress(long fromId, long toId, int updatedRows,
+                           long completedChunks, long totalChunks, long totalUpdatedRows, Checkpoint checkpoint) {
+    }
+
+    public record Result(long updatedRows, long completedChunks, long totalChunks, Checkpoint checkpoint, Throwable failure) {
+        public boolean isCompleted() {
+            return failure == null && completedChunks == totalChunks;
+        }
+    }
+
+    // 완료된 chunk를 모아서 watermark를 앞으로 당긴다. chunk 스레드들이 동시에 호출하므로 synchronized
+    private static class ProgressTracker {
+        private final long chunkSize;
+        private final long totalChunks;
+        private final TreeSet<Long> completedAboveWatermark;
+        private long watermark;
+        private long completedChunks;
+        private long updatedRows;
+
+        ProgressTracker(Checkpoint checkpoint, long firstChunk, long totalChunks) {
+            this.chunkSize = checkpoint.chunkSize();
+            this.totalChunks = totalChunks;
+            this.watermark = Math.max(checkpoint.watermark(), firstChunk - 1); // 첫 chunk 앞쪽에는 행이 없다
+            this.completedAboveWatermark = new TreeSet<>(checkpoint.completedChunks());
+        }
+
+        synchronized Progress completed(long fromId, long toId, int updated) {
+            completedChunks++;
+            updatedRows += updated;
+            completedAboveWatermark.add(fromId);
+            while (!completedAboveWatermark.isEmpty() && completedAboveWatermark.first() == watermark + 1) {
+                watermark = completedAboveWatermark.pollFirst() + chunkSize - 1;
+            }
+            return new Progress(fromId, toId, updated, completedChunks, totalChunks, updatedRows, checkpoint());
+        }
+
+        synchronized Result result(Throwable failure) {
+            return new Result(updatedRows, completedChunks, totalChunks, checkpoint(), failure);
+        }
+
+        private Checkpoint checkpoint() {
+            return new Checkpoint(chunkSize, watermark, Set.copyOf(completedAboveWatermark));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.study.datajpa.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * MemberRepository의 @Async 메소드(findAsync...)를 실행하는 전용 스레드 풀
+ *
+ * - 스레드 수 = 커넥션 풀 크기. 어차피 동시에 쿼리를 실행할 수 있는 수는 커넥션 수까지다
+ * - 큐는 queue-capacity로 제한하고, 가득 차면 rejection-policy에 따라
+ *   caller_runs: 호출한 스레드에서 직접 실행 (자연스럽게 호출 속도가 느려지는 backpressure)
+ *   abort: TaskRejectedException을 던져서 호출한 쪽이 바로 실패 처리 (ex. 503)
+ */
+@Configuration
+@EnableAsync
+public class AsyncRepositoryConfig {
+
+    public static final String REPOSITORY_TASK_EXECUTOR = "repositoryTaskExecutor";
+
+    @Bean(name = REPOSITORY_TASK_EXECUTOR)
+    public ThreadPoolTaskExecutor repositoryTaskExecutor(
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int maximumPoolSize,
+            @Value("${app.repository-executor.queue-capacity:100}") int queueCapacity,
+            @Value("${app.repository-executor.rejection-policy:caller_runs}") String rejectionPolicy) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("repository-");
+        executor.setCorePoolSize(maximumPoolSize);
+        executor.setMaxPoolSize(maximumPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(rejectionHandler(rejectionPolicy));
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    private static RejectedExecutionHandler rejectionHandler(String rejectionPolicy) {
+        return switch (rejectionPolicy.toLowerCase()) {
+            case "caller_runs" -> new ThreadPoolExecutor.CallerRunsPolicy();
+            case "abort" -> new ThreadPoolExecutor.AbortPolicy();
+            default -> throw new IllegalArgumentException("unknown rejection policy: " + rejectionPolicy);
+        };
+    }
+
+    /**
+     * Executor Bean을 하나라도 등록하면 Spring Boot의 applicationTaskExecutor(MVC 비동기 처리, StreamingResponseBody용)가 등록되지 않는다.
+     * 따라서 같은 설정(spring.task.execution)으로 직접 등록한다. virtual thread를 사용할 때는 VirtualThreadConfig가 등록한다
+     */
+    @Lazy
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME, "taskExecutor"})
+    @ConditionalOnProperty(name = "app.threads.virtual.enabled", havingValue = "false", matchIfMissing = true)
+    public ThreadPoolTaskExecutor applicationTaskExecutor(TaskExecutorBuilder builder) {
+        return builder.build();
+    }
+}
@@ -0,0 +1,47 @@
+package com.study.datajpa.config;
+
+import com.study.datajpa.support.AuditingClock;
+import com.study.datajpa.support.AuditingFlushInterceptor;
+import org.hibernate.Interceptor;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.auditing.DateTimeProvider;
+
+import java.time.Clock;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Spring Data JPA Auditing(@CreatedDate, @LastModifiedDate)과 JpaBaseEntity가 같은 AuditingClock의 시간을 사용하게 한다
+ * 테스트에서는 Clock Bean을 Clock.fixed(...)로 바꿔서 시간을 고정할 수 있다
+ */
+@Configuration
+public class AuditingConfig {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public Clock clock() {
+        return Clock.systemDefaultZone();
+    }
+
+    @Bean
+    public AuditingClock auditingClock(Clock clock) {
+        return new AuditingClock(clock);
+    }
+
+    // @EnableJpaAuditing(dateTimeProviderRef = "auditingDateTimeProvider")
+    @Bean
+    public DateTimeProvider auditingDateTimeProvider(AuditingClock auditingClock) {
+        return () -> Optional.of(auditingClock.now());
+    }
+
+    // flush 시간은 세션별 상태이므로 SessionFactory에 하나를 등록하지 않고 세션마다 새로 만든다
+    @Bean
+    public HibernatePropertiesCustomizer auditingInterceptorCustomizer(Clock clock) {
+        Supplier<Interceptor> interceptorPerSession = () -> new AuditingFlushInterceptor(clock);
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.SESSION_SCOPED_INTERCEPTOR, interceptorPerSession);
+    }
+}
@@ -0,0 +1,78 @@
+package com.study.datajpa.config;
+
+import com.study.datajpa.datasource.ReadWriteRoutingDataSource;
+import com.study.datajpa.datasource.ReplicaHealthChecker;
+import com.study.datajpa.datasource.ReplicaNode;
+import com.study.datajpa.datasource.ReplicaSelector;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * app.datasource.routing.enabled=true일 때 DataSource를 primary + replica 라우팅으로 교체한다
+ *
+ * DataSource Bean을 직접 등록하면 Spring Boot의 DataSourceAutoConfiguration은 동작하지 않으므로
+ * primary는 spring.datasource(.hikari) 설정으로 직접 만든다. replica 풀은 Bean이 아니라 라우팅 DataSource 내부에서만 사용한다
+ * p6spy는 라우팅 DataSource만 감싸도록 primaryDataSource를 제외한다 (decorator.datasource.exclude-beans)
+ *
+ * open-in-view가 켜져 있으면 요청 안의 트랜잭션들이 처음 얻은 커넥션을 같이 쓰므로 라우팅이 깨진다 => 켜져 있으면 기동하지 않는다
+ * (spring.jpa.open-in-view는 설정하지 않으면 true)
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.routing.enabled", havingValue = "true")
+@EnableConfigurationProperties(DataSourceRoutingProperties.class)
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaSelector replicaSelector(DataSourceRoutingProperties properties, DataSourceProperties dataSourceProperties) {
+        List<ReplicaNode> replicas = properties.getReplicas().stream()
+                .map(replica -> {
+                    HikariDataSource dataSource = new HikariDataSource();
+                    dataSource.setPoolName(replica.getName());
+                    dataSource.setJdbcUrl(replica.getUrl());
+                    dataSource.setUsername(replica.getUsername() != null ? replica.getUsername() : dataSourceProperties.getUsername());
+                    dataSource.setPassword(replica.getPassword() != null ? replica.getPassword() : dataSourceProperties.getPassword());
+                    dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+                    dataSource.setReadOnly(true);
+                    return new ReplicaNode(replica.getName(), dataSource,
+                            () -> dataSource.getHikariPoolMXBean() != null ? dataSource.getHikariPoolMXBean().getActiveConnections() : 0);
+                })
+                .toList();
+        return new ReplicaSelector(replicas, properties.getStrategy(), properties.getMaxLag());
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaHealthChecker replicaHealthChecker(ReplicaSelector replicaSelector, DataSourceRoutingProperties properties) {
+        return new ReplicaHealthChecker(replicaSelector, properties.getLagQuery(), properties.getHealthCheckInterval());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaSelector replicaSelector,
+                                 @Value("${spring.jpa.open-in-view:true}") boolean openInView) {
+        if (openInView) {
+            throw new IllegalStateException("app.datasource.routing.enabled=true requires spring.jpa.open-in-view=false");
+        }
+        ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(primaryDataSource, replicaSelector);
+        routingDataSource.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
@@ -0,0 +1,37 @@
+package com.study.datajpa.config;
+
+import com.study.datajpa.datasource.ReplicaSelector;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 읽기/쓰기 DataSource 라우팅 설정 (application.yml의 app.datasource.routing)
+ * primary는 기존 spring.datasource 설정을 그대로 사용한다
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.datasource.routing")
+public class DataSourceRoutingProperties {
+
+    private boolean enabled;
+    private ReplicaSelector.Strategy strategy = ReplicaSelector.Strategy.ROUND_ROBIN;
+    private Duration maxLag = Duration.ofSeconds(5); // 이보다 뒤처진 replica는 사용하지 않는다
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+    private String lagQuery; // 없으면 지연은 0으로 간주하고 살아있는지만 확인
+    private List<Replica> replicas = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Replica {
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,29 @@
+package com.study.datajpa.config;
+
+import com.study.datajpa.support.DbConcurrencyLimitFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * MemberController(/members/**)에만 DB 동시 실행 제한을 건다
+ * 퍼밋 수는 Hikari 커넥션 풀 크기(spring.datasource.hikari.maximum-pool-size, 기본 10)와 같게 맞춘다
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.db-concurrency-limit.enabled", havingValue = "true")
+public class DbConcurrencyLimitConfig {
+
+    @Bean
+    public FilterRegistrationBean<DbConcurrencyLimitFilter> dbConcurrencyLimitFilter(
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int maximumPoolSize,
+            @Value("${app.db-concurrency-limit.acquire-timeout:2s}") Duration acquireTimeout) {
+        FilterRegistrationBean<DbConcurrencyLimitFilter> registration =
+                new FilterRegistrationBean<>(new DbConcurrencyLimitFilter(maximumPoolSize, acquireTimeout));
+        registration.addUrlPatterns("/members", "/members/*");
+        return registration;
+    }
+}
@@ -0,0 +1,21 @@
+package com.study.datajpa.config;
+
+import com.study.datajpa.stats.TeamStatsMaintenance;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * spring.main.lazy-initialization=true(faststart 프로필)여도 기동할 때 만들어야 하는 Bean
+ *
+ * - HibernateEventListenerRegistrar: 아무도 주입받지 않으므로 lazy면 영영 만들어지지 않는다 => team_stats, 검색 인덱스가 갱신되지 않음
+ * - TeamStatsMaintenance: @Scheduled(reconcile)는 Bean이 만들어질 때 등록된다
+ */
+@Configuration
+public class FastStartConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(HibernateEventListenerRegistrar.class, TeamStatsMaintenance.class);
+    }
+}
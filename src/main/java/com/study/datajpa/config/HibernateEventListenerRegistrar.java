@@ -0,0 +1,45 @@
+package com.study.datajpa.config;
+
+import com.study.datajpa.monitoring.EntityLoadCounter;
+import com.study.datajpa.search.MemberSearch;
+import com.study.datajpa.stats.TeamStatsTracker;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+/**
+ * Spring Bean으로 만든 Hibernate 이벤트 리스너를 SessionFactory에 등록한다
+ * (hibernate 설정으로 등록하면 Hibernate가 직접 객체를 만들기 때문에 Bean을 주입받을 수 없다)
+ *
+ * 모든 싱글톤 Bean이 만들어진 뒤(웹 서버가 요청을 받기 전)에 등록한다.
+ * faststart 프로필에서는 EntityManagerFactory를 백그라운드에서 만드는데, unwrap()은 그것이 끝날 때까지 기다리므로
+ * @PostConstruct에서 등록하면 다른 Bean을 만드는 동안 메인 스레드가 멈춘다
+ */
+@Component
+@RequiredArgsConstructor
+public class HibernateEventListenerRegistrar implements SmartInitializingSingleton {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final EntityLoadCounter entityLoadCounter;
+    private final TeamStatsTracker teamStatsTracker;
+    private final MemberSearch memberSearch;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+
+        registry.appendListeners(EventType.POST_LOAD, entityLoadCounter);
+        registry.appendListeners(EventType.POST_INSERT, teamStatsTracker);
+        registry.appendListeners(EventType.POST_UPDATE, teamStatsTracker);
+        registry.appendListeners(EventType.POST_DELETE, teamStatsTracker);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, memberSearch);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, memberSearch);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, memberSearch);
+    }
+}
@@ -0,0 +1,20 @@
+package com.study.datajpa.config;
+
+import com.study.datajpa.monitoring.SqlBudgetProperties;
+import com.study.datajpa.monitoring.SqlStatementCounter;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(SqlBudgetProperties.class)
+public class JpaMonitoringConfig {
+
+    // StatementInspector는 SessionFactory당 하나만 등록할 수 있다
+    @Bean
+    public HibernatePropertiesCustomizer statementInspectorCustomizer(SqlStatementCounter sqlStatementCounter) {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, sqlStatementCounter);
+    }
+}
@@ -0,0 +1,74 @@
+package com.study.datajpa.config;
+
+import com.study.datajpa.dto.CursorPageDTO;
+import com.study.datajpa.dto.MemberDTO;
+import com.study.datajpa.dto.MemberOverviewDTO;
+import com.study.datajpa.dto.PMemberDTO;
+import com.study.datajpa.entity.BaseEntity;
+import com.study.datajpa.entity.BaseTimeEntity;
+import com.study.datajpa.entity.JpaBaseEntity;
+import com.study.datajpa.entity.JpaBaseEntityListener;
+import com.study.datajpa.entity.Member;
+import com.study.datajpa.entity.Team;
+import com.study.datajpa.entity.TeamStats;
+import com.study.datajpa.monitoring.SlowQueryReport;
+import com.study.datajpa.monitoring.SqlTrace;
+import com.study.datajpa.repository.datajpa.BulkUpdateMode;
+import com.study.datajpa.repository.datajpa.MemberRepositoryCustom;
+import com.study.datajpa.repository.datajpaImpl.MemberRepositoryCustomImpl;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+/**
+ * GraalVM native image(./gradlew nativeCompile)에서 리플렉션으로 접근하는 클래스 목록
+ * native image는 빌드할 때 도달할 수 있는 코드만 포함하므로, 리플렉션으로만 사용하는 생성자/필드/메소드는 여기에 등록해야 한다 (JVM에서는 아무 영향 없음)
+ *
+ * - 엔티티, @MappedSuperclass: Hibernate가 필드에 직접 접근하고 기본 생성자로 객체를 만든다
+ *   (Spring AOT가 스캔한 엔티티도 등록하지만, 상속 구조의 필드까지 명시적으로 등록해둔다)
+ * - PMemberDTO: JPQL의 "select new ...PMemberDTO(...)"는 Hibernate가 리플렉션으로 생성자를 호출한다
+ * - MemberRepositoryCustomImpl: Spring Data가 이름 규칙(Impl)으로 찾아서 만드는 fragment
+ * - API/actuator 응답: Jackson이 getter/record component로 직렬화한다
+ */
+@Configuration
+@ImportRuntimeHints(NativeHintsConfig.DataJpaRuntimeHints.class)
+public class NativeHintsConfig {
+
+    static class DataJpaRuntimeHints implements RuntimeHintsRegistrar {
+
+        private static final Class<?>[] ENTITIES = {
+                BaseTimeEntity.class, BaseEntity.class, JpaBaseEntity.class, Member.class, Team.class, TeamStats.class
+        };
+
+        private static final Class<?>[] RESPONSES = {
+                MemberDTO.class, PMemberDTO.class, CursorPageDTO.class, MemberOverviewDTO.class,
+                SqlTrace.class, SlowQueryReport.View.class, SlowQueryReport.Plan.class
+        };
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            for (Class<?> entity : ENTITIES) {
+                hints.reflection().registerType(entity,
+                        MemberCategory.DECLARED_FIELDS,
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                        MemberCategory.INVOKE_DECLARED_METHODS);
+            }
+
+            hints.reflection().registerType(JpaBaseEntityListener.class,
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS,
+                    MemberCategory.INVOKE_PUBLIC_METHODS);
+            hints.reflection().registerType(PMemberDTO.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+
+            hints.reflection().registerType(MemberRepositoryCustom.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+            hints.reflection().registerType(MemberRepositoryCustomImpl.class,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_PUBLIC_METHODS);
+            hints.reflection().registerType(BulkUpdateMode.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+
+            new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), RESPONSES);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.study.datajpa.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// @Scheduled 사용 (MemberAgeWriteBehindBuffer.flush() 등)
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,66 @@
+package com.study.datajpa.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.util.OptionalLong;
+
+/**
+ * Hibernate 2차 캐시(JCache + Caffeine) 설정
+ *
+ * Hibernate가 CacheManager를 직접 만들게 하면 region별 TTL, 크기 제한을 Caffeine 전용 설정 파일로 따로 관리해야 한다.
+ * 대신 application.yml(app.cache.regions)을 읽어서 region별 캐시를 미리 만들어두고, 그 CacheManager를 Hibernate에게 넘겨준다.
+ *
+ * 벌크 연산(updateAgeInBulk)과의 정합성
+ * - JPQL 벌크 update/delete를 실행하면 Hibernate가 대상 테이블(member)에 매핑된 엔티티/컬렉션 region을 통째로 비운다
+ * - 따라서 벌크 연산 이후에 2차 캐시에서 변경 전 값을 읽는 일은 없다
+ */
+@Configuration
+@EnableConfigurationProperties(SecondLevelCacheProperties.class)
+public class SecondLevelCacheConfig {
+
+    @Bean
+    public CacheManager hibernateCacheManager(SecondLevelCacheProperties properties) {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(provider.getDefaultURI(), getClass().getClassLoader());
+
+        properties.getRegions().forEach((name, region) -> {
+            if (cacheManager.getCache(name) != null) { // 같은 JVM에서 context가 여러 번 뜨는 경우(테스트)
+                return;
+            }
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setExpireAfterWrite(OptionalLong.of(properties.ttlOf(region).toNanos()));
+            configuration.setMaximumSize(OptionalLong.of(properties.maxSizeOf(region)));
+            configuration.setStatisticsEnabled(true); // hit/miss/eviction 통계. JCacheMetrics가 읽어간다
+            cacheManager.createCache(name, configuration);
+        });
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    // /actuator/metrics/cache.gets?tag=cache:team 처럼 region별 hit/miss/put/eviction을 조회할 수 있다
+    @Bean
+    public MeterBinder secondLevelCacheMetrics(CacheManager hibernateCacheManager) {
+        return registry -> {
+            for (String name : hibernateCacheManager.getCacheNames()) {
+                Cache<Object, Object> cache = hibernateCacheManager.getCache(name);
+                JCacheMetrics.monitor(registry, cache);
+            }
+        };
+    }
+}
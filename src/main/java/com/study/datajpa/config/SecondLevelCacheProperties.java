@@ -0,0 +1,38 @@
+package com.study.datajpa.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 2차 캐시 region별 설정 (application.yml의 app.cache)
+ * region 이름은 엔티티의 @Cache(region = ...)과 같아야 한다. ttl, max-size를 생략하면 default 값을 사용한다
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.cache")
+public class SecondLevelCacheProperties {
+
+    private Duration defaultTtl = Duration.ofMinutes(10);
+    private long defaultMaxSize = 10_000;
+    private Map<String, Region> regions = new LinkedHashMap<>();
+
+    @Getter
+    @Setter
+    public static class Region {
+        private Duration ttl;
+        private Long maxSize;
+    }
+
+    public Duration ttlOf(Region region) {
+        return region.getTtl() != null ? region.getTtl() : defaultTtl;
+    }
+
+    public long maxSizeOf(Region region) {
+        return region.getMaxSize() != null ? region.getMaxSize() : defaultMaxSize;
+    }
+}
@@ -0,0 +1,40 @@
+package com.study.datajpa.config;
+
+import com.study.datajpa.monitoring.IndexAdvisor;
+import com.study.datajpa.monitoring.QueryPlanExplainer;
+import com.study.datajpa.monitoring.SlowQueryProperties;
+import com.study.datajpa.monitoring.SlowQueryReport;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import javax.sql.DataSource;
+
+@Configuration
+@EnableConfigurationProperties(SlowQueryProperties.class)
+public class SlowQueryConfig {
+
+    @Bean
+    public SlowQueryReport slowQueryReport(SlowQueryProperties properties) {
+        return new SlowQueryReport(properties.getMaxQueries(), properties.getReexplainAfter());
+    }
+
+    @Bean
+    public QueryPlanExplainer queryPlanExplainer(ObjectProvider<DataSource> dataSource, SlowQueryProperties properties) {
+        return new QueryPlanExplainer(dataSource, slowQueryExplainExecutor(properties), new IndexAdvisor(), properties.isAnalyze());
+    }
+
+    // EXPLAIN 전용. 스레드 1개, 큐가 가득 차면 TaskRejectedException (=> 버리고 다음 실행에서 다시 시도)
+    @Bean
+    public ThreadPoolTaskExecutor slowQueryExplainExecutor(SlowQueryProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("slow-query-explain-");
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(properties.getExplainQueueCapacity());
+        executor.setDaemon(true);
+        return executor;
+    }
+}
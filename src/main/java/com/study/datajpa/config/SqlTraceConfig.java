@@ -0,0 +1,17 @@
+package com.study.datajpa.config;
+
+import com.study.datajpa.monitoring.SqlTraceProperties;
+import com.study.datajpa.monitoring.SqlTraceRingBuffer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(SqlTraceProperties.class)
+public class SqlTraceConfig {
+
+    @Bean
+    public SqlTraceRingBuffer sqlTraceRingBuffer(SqlTraceProperties properties) {
+        return new SqlTraceRingBuffer(properties.getBufferSize());
+    }
+}
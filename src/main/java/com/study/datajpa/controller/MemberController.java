@@ -1,20 +1,57 @@
 package com.study.datajpa.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.study.datajpa.dto.CursorPageDTO;
+import com.study.datajpa.dto.MemberCursor;
+import com.study.datajpa.dto.MemberDTO;
+import com.study.datajpa.dto.MemberOverviewDTO;
+import com.study.datajpa.dto.PMemberDTO;
 import com.study.datajpa.entity.Member;
 import com.study.datajpa.repository.datajpa.MemberRepository;
-import jakarta.annotation.PostConstruct;
+import com.study.datajpa.search.MemberSearch;
+import com.study.datajpa.support.FanOut;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final Duration OVERVIEW_TIMEOUT = Duration.ofSeconds(3);
+    private static final int EXPORT_FLUSH_INTERVAL = 100; // 이 줄 수마다 응답을 flush해서 클라이언트가 바로 받을 수 있게 한다
+
     private final MemberRepository memberRepository;
+    private final MemberSearch memberSearch;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
 
     @GetMapping("/members/{id}")
     public String findMember(@PathVariable("id") long id){
@@ -29,10 +66,126 @@ public class MemberController {
         }
     }
 
-    // 객체의 생성과 의존성 주입이 완료된 후에 실행되는 초기화 메소드
-    @PostConstruct
-    public void init(){
-        memberRepository.save(new Member("userA"));
+    /**
+     * 무한 스크롤용 keyset 페이징 API
+     * 첫 요청은 cursor 없이 보내고, 이후에는 응답의 nextCursor를 그대로 cursor로 넘긴다. nextCursor가 null이면 마지막 페이지
+     * ex) GET /members?age=10&size=20&cursor=MTIzOm1lbWJlcjE
+     */
+    @GetMapping("/members")
+    public CursorPageDTO<MemberDTO> findMembers(@RequestParam("age") int age,
+                                                @RequestParam(value = "size", defaultValue = "20") int size,
+                                                @RequestParam(value = "cursor", required = false) String cursor){
+        PageRequest pageRequest = PageRequest.ofSize(Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+
+        Slice<Member> slice;
+        if(cursor == null){
+            slice = memberRepository.findKeysetByAge(age, pageRequest);
+        }else{
+            MemberCursor memberCursor = decodeCursor(cursor);
+            slice = memberRepository.findKeysetByAgeAfter(age, memberCursor.getUsername(), memberCursor.getId(), pageRequest);
+        }
+
+        List<Member> members = slice.getContent();
+        String nextCursor = slice.hasNext() ? MemberCursor.of(members.get(members.size() - 1)).encode() : null;
+        return new CursorPageDTO<>(members.stream().map(MemberDTO::new).toList(), nextCursor);
+    }
+
+    /**
+     * username 자동완성 검색. 접두사가 일치하는 회원이 먼저, 그 다음 중간에 포함하는 회원이 username 순으로 나온다 (대소문자 구분 없음)
+     * 부분 일치는 검색어가 3글자 이상일 때만 찾는다
+     * ex) GET /members/search?q=use&limit=10
+     */
+    @GetMapping("/members/search")
+    public List<MemberDTO> searchMembers(@RequestParam("q") String q,
+                                         @RequestParam(value = "limit", defaultValue = "20") int limit){
+        return memberSearch.search(q, limit);
+    }
+
+    /**
+     * 여러 조회를 모아서 응답하는 API
+     * 두 조회는 서로 독립적이므로 순서대로 실행하지 않고 비동기로 동시에 실행한다 (응답 시간 = 가장 느린 조회의 시간)
+     * 실행 큐가 가득 차면 503, OVERVIEW_TIMEOUT 안에 끝나지 않으면 504
+     * ex) GET /members/overview?username=userA&age=10
+     */
+    @GetMapping("/members/overview")
+    public MemberOverviewDTO memberOverview(@RequestParam("username") String username,
+                                           @RequestParam("age") int age){
+        CompletableFuture<Member> member;
+        CompletableFuture<Page<Member>> sameAge;
+        try{
+            member = memberRepository.findAsyncByUsername(username);
+            sameAge = memberRepository.findAsyncPageByAge(age, PageRequest.of(0, MAX_PAGE_SIZE, Sort.by("username")));
+        }catch (TaskRejectedException e){
+            // repositoryTaskExecutor의 큐가 가득 찼다 (rejection-policy: abort)
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "too many concurrent queries", e);
+        }
+        try{
+            FanOut.awaitAll(OVERVIEW_TIMEOUT, member, sameAge);
+        }catch (CompletionException e){
+            if(e.getCause() instanceof TimeoutException){
+                throw new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "overview did not complete within " + OVERVIEW_TIMEOUT, e);
+            }
+            throw e;
+        }
+
+        Page<Member> page = sameAge.join();
+        return new MemberOverviewDTO(
+                Optional.ofNullable(member.join()).map(MemberDTO::new).orElse(null),
+                page.getContent().stream().map(MemberDTO::new).toList(),
+                page.getTotalElements());
+    }
+
+    /**
+     * 전체 회원을 NDJSON(한 줄에 JSON 하나)으로 내려준다. withTeam=true면 team이 있는 회원만 팀 이름과 함께 내려준다
+     * 쿼리 결과를 List로 다 받은 뒤에 응답하면 힙이 테이블 크기만큼 필요하고, 쿼리가 끝날 때까지 첫 바이트도 보낼 수 없다.
+     * 따라서 Stream으로 읽으면서 바로바로 응답에 쓴다.
+     *
+     * StreamingResponseBody는 요청 스레드가 아닌 별도의 스레드에서 실행되므로 그 안에서 readOnly 트랜잭션을 직접 열어준다.
+     */
+    @GetMapping("/members/export")
+    public ResponseEntity<StreamingResponseBody> exportMembers(@RequestParam(value = "withTeam", defaultValue = "false") boolean withTeam){
+        TransactionTemplate readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+
+        StreamingResponseBody body = out -> readOnlyTx.executeWithoutResult(status -> {
+            if(withTeam){
+                try(Stream<PMemberDTO> members = memberRepository.streamMemberDTO()){
+                    writeNdjson(members.iterator(), out);
+                }
+            }else{
+                try(Stream<Member> members = memberRepository.streamCustomMember()){
+                    writeNdjson(members.map(MemberDTO::new).iterator(), out);
+                }
+            }
+        });
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    private void writeNdjson(Iterator<?> rows, OutputStream out){
+        try{
+            int count = 0;
+            while(rows.hasNext()){
+                out.write(objectMapper.writeValueAsBytes(rows.next()));
+                out.write('\n');
+                if(++count % EXPORT_FLUSH_INTERVAL == 0){
+                    out.flush();
+                }
+            }
+            out.flush();
+        }catch (IOException e){
+            throw new UncheckedIOException(e); // 클라이언트가 연결을 끊은 경우 등. 트랜잭션은 롤백되고 스트림은 닫힌다
+        }
+    }
+
+    private MemberCursor decodeCursor(String cursor){
+        try{
+            return MemberCursor.decode(cursor);
+        }catch (IllegalArgumentException e){
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
     }
 
 }
@@ -0,0 +1,42 @@
+package com.study.datajpa.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @Transactional(readOnly = true) 트랜잭션은 replica로, 나머지는 primary로 보낸다
+ *
+ * 트랜잭션의 readOnly 여부(isCurrentTransactionReadOnly)는 트랜잭션 매니저가 커넥션을 얻은 "후에" 설정되므로
+ * 반드시 LazyConnectionDataSourceProxy로 감싸서 실제 커넥션을 첫 SQL 실행 시점에 얻도록 해야 한다 (DataSourceRoutingConfig)
+ *
+ * 읽기-쓰기 트랜잭션 안에서 호출된 readOnly 메소드는 바깥 트랜잭션에 참여하므로 primary를 사용한다 (방금 쓴 데이터를 읽을 수 있도록)
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private final ReplicaSelector replicaSelector;
+
+    public ReadWriteRoutingDataSource(DataSource primary, ReplicaSelector replicaSelector) {
+        this.replicaSelector = replicaSelector;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        replicaSelector.getReplicas().forEach(replica -> targets.put(replica.getName(), replica.getDataSource()));
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        return replicaSelector.select()
+                .map(ReplicaNode::getName)
+                .orElse(PRIMARY); // 사용할 수 있는 replica가 없으면 primary로 fallback
+    }
+}
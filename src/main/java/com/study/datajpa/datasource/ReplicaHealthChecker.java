@@ -0,0 +1,77 @@
+package com.study.datajpa.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.StringUtils;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * replica마다 주기적으로
+ * 1. 커넥션을 얻어서 isValid()로 살아있는지 확인하고
+ * 2. lagQuery가 있으면 실행해서 복제 지연(ms)을 기록한다
+ * 실패하면 unhealthy로 표시되어 ReplicaSelector의 후보에서 빠지고, 다음 검사에서 성공하면 다시 들어간다
+ *
+ * lagQuery는 DB마다 다르므로 설정으로 받는다. 결과의 첫 번째 컬럼이 지연 시간(ms)이어야 한다
+ * (ex. MySQL: select ... from performance_schema.replication_applier_status_by_worker / PostgreSQL: select extract(epoch from now() - pg_last_xact_replay_timestamp()) * 1000)
+ */
+@Slf4j
+public class ReplicaHealthChecker implements AutoCloseable {
+
+    private static final int VALID_TIMEOUT_SECONDS = 1;
+
+    private final ReplicaSelector replicaSelector;
+    private final String lagQuery;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "replica-health-checker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ReplicaHealthChecker(ReplicaSelector replicaSelector, String lagQuery, Duration interval) {
+        this.replicaSelector = replicaSelector;
+        this.lagQuery = lagQuery;
+        scheduler.scheduleWithFixedDelay(this::checkAll, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    void checkAll() {
+        replicaSelector.getReplicas().forEach(this::check);
+    }
+
+    private void check(ReplicaNode replica) {
+        try (Connection connection = replica.getDataSource().getConnection()) {
+            if (!connection.isValid(VALID_TIMEOUT_SECONDS)) {
+                markUnhealthy(replica, "connection is not valid");
+                return;
+            }
+            replica.markHealthy(StringUtils.hasText(lagQuery) ? queryLag(connection) : 0);
+        } catch (SQLException e) {
+            markUnhealthy(replica, e.getMessage());
+        }
+    }
+
+    private long queryLag(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            return resultSet.next() ? resultSet.getLong(1) : 0;
+        }
+    }
+
+    private void markUnhealthy(ReplicaNode replica, String reason) {
+        if (replica.isHealthy()) {
+            log.warn("replica {} is unhealthy. reads fall back to other replicas or primary: {}", replica.getName(), reason);
+        }
+        replica.markUnhealthy();
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
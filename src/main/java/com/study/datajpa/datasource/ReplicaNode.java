@@ -0,0 +1,40 @@
+package com.study.datajpa.datasource;
+
+import lombok.Getter;
+
+import javax.sql.DataSource;
+import java.util.function.IntSupplier;
+
+/**
+ * replica 하나의 커넥션 풀과 상태
+ * healthy, lagMillis는 ReplicaHealthChecker가 주기적으로 갱신하고, 요청 스레드는 읽기만 한다
+ */
+@Getter
+public class ReplicaNode {
+
+    private final String name;
+    private final DataSource dataSource;
+    private final IntSupplier activeConnections; // least-connections 선택용 (Hikari의 active connection 수)
+
+    private volatile boolean healthy = true;
+    private volatile long lagMillis;
+
+    public ReplicaNode(String name, DataSource dataSource, IntSupplier activeConnections) {
+        this.name = name;
+        this.dataSource = dataSource;
+        this.activeConnections = activeConnections;
+    }
+
+    public int activeConnections() {
+        return activeConnections.getAsInt();
+    }
+
+    void markHealthy(long lagMillis) {
+        this.lagMillis = lagMillis;
+        this.healthy = true;
+    }
+
+    void markUnhealthy() {
+        this.healthy = false;
+    }
+}
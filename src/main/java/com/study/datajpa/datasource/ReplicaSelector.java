@@ -0,0 +1,54 @@
+package com.study.datajpa.datasource;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 읽기 전용 트랜잭션이 사용할 replica를 고른다
+ * healthy하고 복제 지연(lag)이 maxLag 이하인 replica 중에서 strategy로 하나를 고르고, 없으면 empty (primary 사용)
+ */
+public class ReplicaSelector implements AutoCloseable {
+
+    public enum Strategy { ROUND_ROBIN, LEAST_CONNECTIONS }
+
+    private final List<ReplicaNode> replicas;
+    private final Strategy strategy;
+    private final long maxLagMillis;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaSelector(List<ReplicaNode> replicas, Strategy strategy, Duration maxLag) {
+        this.replicas = List.copyOf(replicas);
+        this.strategy = strategy;
+        this.maxLagMillis = maxLag.toMillis();
+    }
+
+    public Optional<ReplicaNode> select() {
+        List<ReplicaNode> candidates = replicas.stream()
+                .filter(replica -> replica.isHealthy() && replica.getLagMillis() <= maxLagMillis)
+                .toList();
+        if (candidates.isEmpty()) {
+            return Optional.empty();
+        }
+        return switch (strategy) {
+            case ROUND_ROBIN -> Optional.of(candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size())));
+            case LEAST_CONNECTIONS -> candidates.stream().min(Comparator.comparingInt(ReplicaNode::activeConnections));
+        };
+    }
+
+    public List<ReplicaNode> getReplicas() {
+        return replicas;
+    }
+
+    // replica 커넥션 풀은 Bean이 아니므로 여기서 닫는다
+    @Override
+    public void close() throws Exception {
+        for (ReplicaNode replica : replicas) {
+            if (replica.getDataSource() instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.study.datajpa.dto;
+
+import com.study.datajpa.entity.Member;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * keyset 페이징의 continuation token
+ * 마지막으로 읽은 행의 정렬 키(username, id)를 담고, 클라이언트에게는 base64로 인코딩한 문자열(opaque token)로만 노출한다.
+ * 클라이언트는 내용을 해석하지 않고 다음 요청에 그대로 돌려주기만 하면 된다.
+ */
+@Getter
+public class MemberCursor {
+    private final String username;
+    private final Long id;
+
+    public MemberCursor(String username, Long id) {
+        this.username = username;
+        this.id = id;
+    }
+
+    public static MemberCursor of(Member member) {
+        return new MemberCursor(member.getUsername(), member.getId());
+    }
+
+    // id:username 형태. username에 ':'이 들어가도 첫 번째 ':'로만 나누므로 문제없다
+    public String encode() {
+        String raw = id + ":" + username;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static MemberCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("invalid cursor: " + token);
+            }
+            return new MemberCursor(raw.substring(separator + 1), Long.valueOf(raw.substring(0, separator)));
+        } catch (IllegalArgumentException e) { // NumberFormatException도 IllegalArgumentException의 하위 타입
+            throw new IllegalArgumentException("invalid cursor: " + token, e);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.study.datajpa.dto;
+
+import com.study.datajpa.entity.Member;
+import lombok.Data;
+
+@Data
+public class MemberDTO { // API 응답용. 엔티티를 그대로 노출하면 lazy loading되는 team까지 직렬화하려고 한다
+    private Long id;
+    private String username;
+    private int age;
+
+    public MemberDTO(Long id, String username, int age) {
+        this.id = id;
+        this.username = username;
+        this.age = age;
+    }
+
+    public MemberDTO(Member member) {
+        this(member.getId(), member.getUsername(), member.getAge());
+    }
+}
@@ -0,0 +1,14 @@
+package com.study.datajpa.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class MemberOverviewDTO { // /members/overview 응답. 서로 독립적인 조회 결과를 모은다
+    private MemberDTO member;
+    private List<MemberDTO> sameAgeMembers;
+    private long sameAgeCount;
+}
@@ -0,0 +1,29 @@
+package com.study.datajpa.entity;
+
+import com.study.datajpa.support.AuditingClock;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+
+/**
+ * JpaBaseEntity의 생성일/수정일 콜백
+ * 엔티티의 콜백 메소드는 Spring Bean을 주입받을 수 없으므로 리스너로 분리한다.
+ * 리스너는 Hibernate가 SpringBeanContainer(Spring Boot 기본 설정)로 만들기 때문에 생성자 주입을 받을 수 있다
+ */
+public class JpaBaseEntityListener {
+
+    private final AuditingClock auditingClock;
+
+    public JpaBaseEntityListener(AuditingClock auditingClock) {
+        this.auditingClock = auditingClock;
+    }
+
+    @PrePersist
+    public void prePersist(JpaBaseEntity entity) {
+        entity.prePersist(auditingClock.now()); // 같은 flush의 엔티티는 같은 시간을 사용한다
+    }
+
+    @PreUpdate
+    public void preUpdate(JpaBaseEntity entity) {
+        entity.preUpdate(auditingClock.now());
+    }
+}
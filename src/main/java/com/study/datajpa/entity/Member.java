@@ -2,11 +2,20 @@ package com.study.datajpa.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "member")
 @Getter
 @Setter
-@Table(name = "member")
+@Table(name = "member", indexes = {
+        @Index(name = "idx_member_age_username_id", columnList = "age, username, member_id"), // keyset 페이징용, age 조건(findPageByAge, updateAgeInBulk)
+        @Index(name = "idx_member_username", columnList = "username"), // findByUsername 등
+        @Index(name = "idx_member_team_id", columnList = "team_id") // team.members 조회, fetch join
+})
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "username", "age"}) // 연관관계 필드는 ToString하면 안됨 => 무한루프 발생
 public class Member extends BaseEntity{
@@ -23,6 +32,11 @@ public class Member extends BaseEntity{
     @JoinColumn(name = "team_id")
     private Team team;
 
+    // 낙관적 락. update할 때 where version = ?를 붙여서, 그 사이 다른 트랜잭션이 먼저 수정했다면 OptimisticLockException이 발생한다 (lost update 방지)
+    @Version
+    @Setter(AccessLevel.NONE) // Hibernate만 변경한다
+    private Long version;
+
     public Member(String username) {
         this.username = username;
     }
@@ -38,9 +52,21 @@ public class Member extends BaseEntity{
         this.age = age;
     }
 
-    // 연관관계 편의 메소드
+    /**
+     * 연관관계 편의 메소드
+     * DB에 반영되는 것은 연관관계의 주인인 member.team(FK)뿐이므로 update 한 번이면 된다.
+     * team.members는 메모리 상태를 맞추기 위한 것이므로 team이 로딩된 경우에만 추가한다
+     * - team이 프록시면 team.getMembers()를 호출하는 순간 team이 초기화(select)되므로 먼저 확인한다
+     * - members가 아직 로딩되지 않았어도 add()는 컬렉션을 초기화하지 않는다. mappedBy(inverse) bag이므로 Hibernate가 add를 큐에 쌓아두고
+     *   나중에 컬렉션을 초기화할 때 적용한다. 컬렉션 초기화는 flush하지 않으므로 add하지 않으면 flush 전에 로딩한 members에 이 member가 빠진다
+     * - Team.members는 @OptimisticLock(excluded = true)이므로 add해도 team의 version은 올라가지 않는다 (update team 없음)
+     *
+     * 이전 team의 members에서는 제거하지 않는다. orphanRemoval = true라서 컬렉션에서 제거하면 member가 delete된다
+     */
     public void changeTeam(Team team) {
         this.team = team;
-        team.getMembers().add(this);
+        if (Hibernate.isInitialized(team)) {
+            team.getMembers().add(this);
+        }
     }
 }
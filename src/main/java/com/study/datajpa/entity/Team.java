@@ -2,11 +2,18 @@ package com.study.datajpa.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.OptimisticLock;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "team") // 거의 변경되지 않고 member마다 조회되므로 2차 캐시 대상
+@BatchSize(size = 100) // member.getTeam() 프록시를 초기화할 때 아직 초기화되지 않은 team 프록시를 최대 100개까지 IN 쿼리 한 번으로 가져온다
 @Getter @Setter
 @Table(name = "team")
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
@@ -19,7 +26,16 @@ public class Team {
 
     private String name;
 
+    @Version
+    @Setter(AccessLevel.NONE) // Hibernate만 변경한다
+    private Long version; // 낙관적 락 (Member.version 참고)
+
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "team-members") // 컬렉션 캐시는 member의 id만 저장한다
+    @BatchSize(size = 50) // team.getMembers()도 다른 team의 members 컬렉션을 50개씩 묶어서 초기화 (연관관계별로 따로 조정 가능)
     @OneToMany(mappedBy = "team", orphanRemoval = true) // foreing key가 없는 쪽에 mappedBy설정할 것을 권장
+    // 컬렉션이 바뀌면 Hibernate는 mappedBy여도 team의 version을 올린다 => member.changeTeam()마다 update team이 한 번 더 나가고
+    // 같은 team으로 동시에 옮기면 OptimisticLockException. DB에 반영되는 것은 member.team(FK)뿐이므로 version 대상에서 뺀다
+    @OptimisticLock(excluded = true)
     private List<Member> members = new ArrayList<>();
 
     public Team(String name) {
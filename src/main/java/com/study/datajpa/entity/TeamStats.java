@@ -0,0 +1,37 @@
+package com.study.datajpa.entity;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * team별 member 집계 (읽기 전용 모델)
+ * 대시보드에서 매번 member 전체를 group by 하지 않도록, member가 변경될 때마다 증분으로 갱신한다 (TeamStatsTracker)
+ *
+ * - minAge, maxAge: member가 삭제되거나 나이/팀이 바뀌어서 최솟값/최댓값이 빠지면 증분으로는 새 값을 알 수 없다.
+ *   이때는 extremaStale = true로 표시하고 TeamStatsMaintenance.reconcile()이 다시 계산한다
+ * - 애플리케이션에서 직접 수정하지 않는다 (JDBC로 갱신)
+ */
+@Entity
+@Getter
+@Table(name = "team_stats")
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class TeamStats {
+
+    @Id
+    @Column(name = "team_id")
+    private Long teamId;
+
+    private long memberCount;
+    private long ageSum;
+    private Integer minAge;
+    private Integer maxAge;
+    private boolean extremaStale;
+
+    public Double getAverageAge() {
+        return memberCount == 0 ? null : (double) ageSum / memberCount;
+    }
+}
@@ -0,0 +1,26 @@
+package com.study.datajpa.monitoring;
+
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * DB에서 읽어서 영속성 컨텍스트에 올라간 엔티티 개수를 스레드별로 센다 (1차 캐시, 2차 캐시에서 꺼낸 것 포함)
+ * SqlStatementCounter와 마찬가지로 값은 계속 증가만 한다.
+ *
+ * 등록: HibernateEventListenerRegistrar
+ */
+@Component
+public class EntityLoadCounter implements PostLoadEventListener {
+
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        COUNT.get()[0]++;
+    }
+
+    public long current() {
+        return COUNT.get()[0];
+    }
+}
@@ -0,0 +1,108 @@
+package com.study.datajpa.monitoring;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * H2 실행 계획을 보고 추가하면 좋을 인덱스를 제안한다 (휴리스틱)
+ *
+ * H2는 인덱스를 쓰지 못하고 테이블 전체를 읽으면 계획에 "PUBLIC.MEMBER.tableScan"처럼 표시한다.
+ * 이렇게 전체를 읽은 테이블의 컬럼이 WHERE 조건(또는 그 테이블을 join하는 ON 조건)에 있다면 그 컬럼에 인덱스를 제안한다
+ * - 조건 없이 전체를 읽는 테이블(ex. join의 driving table)은 인덱스가 있어도 전체를 읽어야 하므로 제안하지 않는다
+ * - 이미 그 컬럼으로 시작하는 인덱스가 있는데도 전체를 읽었다면 H2가 선택도가 낮다고 판단한 것이므로 제안하지 않는다
+ * - 서브쿼리, like '%x' 등은 구분하지 않는다. 제안은 참고용이고, 적용 전에 계획을 다시 확인할 것
+ */
+public class IndexAdvisor {
+
+    // FROM "PUBLIC"."MEMBER" "M1_0" /* PUBLIC.MEMBER.tableScan */, UPDATE "PUBLIC"."MEMBER" /* PUBLIC.MEMBER.tableScan */
+    private static final Pattern TABLE_SCAN = Pattern.compile(
+            "\"?PUBLIC\"?\\.\"?(\\w+)\"?(?:\\s+\"?(\\w+)\"?)?\\s*/\\*\\s*PUBLIC\\.(\\w+)\\.tableScan\\s*\\*/");
+    private static final Pattern WHERE = Pattern.compile("\\bWHERE\\b", Pattern.CASE_INSENSITIVE);
+    private static final Pattern CLAUSE_END = Pattern.compile(
+            "\\b(ORDER BY|GROUP BY|HAVING|FETCH|OFFSET|LIMIT|FOR UPDATE)\\b", Pattern.CASE_INSENSITIVE);
+    private static final Pattern LEADING_COMMENTS = Pattern.compile("^(\\s*/\\*.*?\\*/)*\\s*", Pattern.DOTALL); // /* scanCount: 3 */ 등
+    private static final Pattern JOIN_ON_END = Pattern.compile("\\b(JOIN|WHERE)\\b", Pattern.CASE_INSENSITIVE);
+    private static final Pattern UNQUALIFIED_COLUMN = Pattern.compile("(?<![.\\w\"])\"?([A-Za-z_]\\w*)\"?(?=\\s*(=|<>|!=|>=|<=|<|>|\\bIN\\b|\\bLIKE\\b|\\bIS\\b|\\bBETWEEN\\b))");
+
+    /**
+     * @param plan            EXPLAIN 결과
+     * @param indexedColumns  이미 인덱스의 첫 번째 컬럼인 "TABLE.COLUMN" 목록 (대문자)
+     * @return "create index ... on TABLE (COLUMN, ...)" 형태의 제안
+     */
+    public List<String> advise(String plan, Set<String> indexedColumns) {
+        List<String> suggestions = new ArrayList<>();
+        Matcher scan = TABLE_SCAN.matcher(plan);
+        while (scan.find()) {
+            String table = scan.group(3).toUpperCase(Locale.ROOT);
+            String alias = scan.group(2);
+
+            Set<String> columns = new LinkedHashSet<>();
+            columns.addAll(columnsOf(whereClause(plan), table, alias));
+            if (isJoined(plan, scan.start())) {
+                columns.addAll(columnsOf(onClause(plan, scan.end()), table, alias));
+            }
+            if (columns.isEmpty() || columns.stream().anyMatch(column -> indexedColumns.contains(table + "." + column))) {
+                continue;
+            }
+            String suggestion = "create index idx_" + table.toLowerCase(Locale.ROOT) + "_" + String.join("_", columns).toLowerCase(Locale.ROOT)
+                    + " on " + table + " (" + String.join(", ", columns) + ")";
+            if (!suggestions.contains(suggestion)) {
+                suggestions.add(suggestion);
+            }
+        }
+        return suggestions;
+    }
+
+    // alias가 없으면 "COLUMN" 또는 "TABLE"."COLUMN", 있으면 "ALIAS"."COLUMN"
+    private static Set<String> columnsOf(String clause, String table, String alias) {
+        Set<String> columns = new LinkedHashSet<>();
+        if (clause.isEmpty()) {
+            return columns;
+        }
+        if (alias == null) {
+            collect(UNQUALIFIED_COLUMN.matcher(clause), columns);
+        }
+        String qualifier = alias == null ? table : alias;
+        collect(Pattern.compile("(?<!\\w)\"?" + Pattern.quote(qualifier) + "\"?\\.\"?(\\w+)\"?", Pattern.CASE_INSENSITIVE).matcher(clause), columns);
+        return columns;
+    }
+
+    private static void collect(Matcher column, Set<String> columns) {
+        while (column.find()) {
+            columns.add(column.group(1).toUpperCase(Locale.ROOT));
+        }
+    }
+
+    // 마지막 WHERE부터 ORDER BY 등이 나오기 전까지
+    private static String whereClause(String plan) {
+        Matcher where = WHERE.matcher(plan);
+        int start = -1;
+        while (where.find()) {
+            start = where.end();
+        }
+        if (start < 0) {
+            return "";
+        }
+        Matcher end = CLAUSE_END.matcher(plan);
+        return plan.substring(start, end.find(start) ? end.start() : plan.length());
+    }
+
+    private static boolean isJoined(String plan, int tableStart) {
+        return plan.substring(0, tableStart).stripTrailing().toUpperCase(Locale.ROOT).endsWith("JOIN");
+    }
+
+    // 테이블 바로 뒤의 ON 조건 (다음 JOIN, WHERE 전까지)
+    private static String onClause(String plan, int tableEnd) {
+        String trimmed = LEADING_COMMENTS.matcher(plan.substring(tableEnd)).replaceFirst("");
+        if (!trimmed.toUpperCase(Locale.ROOT).startsWith("ON ")) {
+            return "";
+        }
+        Matcher end = JOIN_ON_END.matcher(trimmed);
+        return trimmed.substring(3, end.find(3) ? end.start() : trimmed.length());
+    }
+}
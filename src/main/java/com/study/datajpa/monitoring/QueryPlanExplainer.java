@@ -0,0 +1,105 @@
+package com.study.datajpa.monitoring;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 느린 쿼리의 실행 계획을 별도의 스레드에서 구해서 SlowQueryReport에 기록한다
+ *
+ * - 쿼리를 실행한 스레드(요청 스레드)는 작업을 넘기기만 한다. 큐가 가득 차면 버리고 다음에 다시 시도한다
+ * - EXPLAIN도 커넥션 풀의 커넥션을 사용하므로 스레드는 하나만 둔다 (느린 쿼리가 몰릴 때 커넥션을 더 빼앗지 않도록)
+ * - EXPLAIN 문장도 p6spy를 거치지만 SlowQueryListener가 무시한다
+ */
+@Slf4j
+public class QueryPlanExplainer {
+
+    private static final int EXPLAIN_TIMEOUT_SECONDS = 10;
+    private static final Pattern SCAN_COUNT = Pattern.compile("scanCount:\\s*(\\d+)");
+    // select ... for update/for share(PostgreSQL의 for no key update, for key share 포함)는 analyze하면 실제로 행에 락을 건다
+    private static final Pattern LOCKING_CLAUSE = Pattern.compile(
+            "\\bfor\\s+(update|share|no\\s+key\\s+update|key\\s+share)\\b", Pattern.CASE_INSENSITIVE);
+    private static final String INDEXED_COLUMNS_SQL = """
+            select table_name, column_name from information_schema.index_columns
+            where table_schema = 'PUBLIC' and ordinal_position = 1
+            """;
+
+    private final ObjectProvider<DataSource> dataSource; // DataSource -> p6spy -> listener -> DataSource 순환을 피하기 위해 나중에 꺼낸다
+    private final TaskExecutor executor;
+    private final IndexAdvisor indexAdvisor;
+    private final boolean analyze;
+
+    public QueryPlanExplainer(ObjectProvider<DataSource> dataSource, TaskExecutor executor, IndexAdvisor indexAdvisor, boolean analyze) {
+        this.dataSource = dataSource;
+        this.executor = executor;
+        this.indexAdvisor = indexAdvisor;
+        this.analyze = analyze;
+    }
+
+    public void explainLater(SlowQueryReport.Entry entry, String sqlWithValues) {
+        try {
+            executor.execute(() -> entry.explained(explain(sqlWithValues)));
+        } catch (TaskRejectedException e) {
+            entry.explainSkipped();
+        }
+    }
+
+    SlowQueryReport.Plan explain(String sql) {
+        String keyword = sql.stripLeading().split("\\s", 2)[0].toLowerCase(Locale.ROOT);
+        String explainSql = switch (keyword) {
+            case "select", "with" -> (analyze && !LOCKING_CLAUSE.matcher(sql).find() ? "explain analyze " : "explain ") + sql;
+            case "insert", "update", "delete", "merge" -> "explain " + sql; // analyze는 실제로 수정하므로 하지 않는다
+            default -> null;
+        };
+        if (explainSql == null) {
+            return new SlowQueryReport.Plan(Instant.now(), sql, null, null, List.of(), "not explainable: " + keyword);
+        }
+
+        try (Connection connection = dataSource.getObject().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout(EXPLAIN_TIMEOUT_SECONDS);
+            String plan;
+            try (ResultSet rs = statement.executeQuery(explainSql)) {
+                plan = rs.next() ? rs.getString(1) : "";
+            }
+            Set<String> indexedColumns = new HashSet<>();
+            try (ResultSet rs = statement.executeQuery(INDEXED_COLUMNS_SQL)) {
+                while (rs.next()) {
+                    indexedColumns.add(rs.getString(1).toUpperCase(Locale.ROOT) + "." + rs.getString(2).toUpperCase(Locale.ROOT));
+                }
+            }
+            List<String> suggestions = indexAdvisor.advise(plan, indexedColumns);
+            if (!suggestions.isEmpty()) {
+                log.warn("slow query may need an index {}: {}", suggestions, sql);
+            }
+            return new SlowQueryReport.Plan(Instant.now(), sql, plan, scannedRows(plan), suggestions, null);
+        } catch (SQLException | RuntimeException e) {
+            // 파라미터를 채운 SQL이 문법에 맞지 않는 경우(날짜 형식 등)도 있다
+            log.debug("failed to explain {}", sql, e);
+            return new SlowQueryReport.Plan(Instant.now(), sql, null, null, List.of(), e.getMessage());
+        }
+    }
+
+    private static Long scannedRows(String plan) {
+        Matcher matcher = SCAN_COUNT.matcher(plan);
+        Long total = null;
+        while (matcher.find()) {
+            total = (total == null ? 0 : total) + Long.parseLong(matcher.group(1));
+        }
+        return total;
+    }
+}
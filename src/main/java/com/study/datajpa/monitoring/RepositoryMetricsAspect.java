@@ -0,0 +1,193 @@
+package com.study.datajpa.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.BaseStream;
+
+/**
+ * 리포지토리 메소드별 메트릭 (/actuator/metrics, /actuator/prometheus)
+ * - repository.invocations: 실행 시간 (histogram). tag: repository, method, outcome, exception
+ * - repository.rows: 반환한 행 수 (@Modifying이면 변경된 행 수)
+ * - repository.sql.statements: 실행한 SQL 개수
+ * - repository.entities.loaded: 영속성 컨텍스트에 올라간 엔티티 수
+ *
+ * 대상
+ * - Spring Data 리포지토리(MemberRepository, TeamRepository). 사용자 정의 리포지토리(MemberRepositoryCustomImpl)는
+ *   MemberRepository 프록시를 통해 호출되므로 MemberRepository의 메소드로 집계된다
+ * - 순수 JPA 리포지토리(MemberJpaRepository, TeamJpaRepository)
+ *
+ * p6spy나 org.hibernate.SQL 로그와 달리 집계가 가능하고, 호출마다 문자열을 만들지 않는다
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class RepositoryMetricsAspect {
+
+    private final MeterRegistry meterRegistry;
+    private final SqlStatementCounter sqlStatementCounter;
+    private final EntityLoadCounter entityLoadCounter;
+
+    private final Map<MeterKey, RepositoryMeters> metersByMethod = new ConcurrentHashMap<>(); // 호출마다 builder/register로 찾지 않도록
+
+    @Around("(this(org.springframework.data.repository.Repository) || within(com.study.datajpa.repository.jpa..*))" +
+            " && execution(public * *(..))" +
+            " && !execution(* java.lang.Object.*(..))" +
+            " && !execution(* com.study.datajpa.repository.jpa.*.getEm())")
+    public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+        Object target = joinPoint.getTarget();
+        RepositoryMeters meters = metersByMethod.computeIfAbsent(new MeterKey(target.getClass(), joinPoint.getSignature().getName()),
+                key -> new RepositoryMeters(repositoryName(target), key.method()));
+
+        long statementsBefore = sqlStatementCounter.current();
+        long entitiesBefore = entityLoadCounter.current();
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            meters.invocations(e).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            meters.recordCounts(statementsBefore, entitiesBefore);
+            throw e;
+        }
+
+        /*
+         * @Async 메소드(findAsync...)가 아직 끝나지 않은 CompletableFuture를 반환한 경우: 쿼리는 다른 스레드에서 실행된다
+         * - 실행 시간과 행 수는 future가 끝날 때 기록한다. 호출한 쪽이 결과를 받기 전에 기록되도록 whenComplete가 만든 future를 반환
+         * - SQL 개수와 엔티티 수는 스레드별로 세므로 이 스레드에서는 알 수 없다. 기록하지 않는다
+         */
+        if (result instanceof CompletableFuture<?> future && !future.isDone()) {
+            return future.whenComplete((value, error) -> {
+                meters.invocations(unwrap(error)).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                if (error == null) {
+                    meters.recordRows(rowCount(value));
+                }
+            });
+        }
+
+        meters.invocations(null).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        meters.recordCounts(statementsBefore, entitiesBefore);
+        if (result instanceof CompletableFuture<?> future) { // 이미 끝난 future: 이 스레드에서 실행된 @Async 메소드의 결과
+            if (!future.isCompletedExceptionally()) {
+                meters.recordRows(rowCount(future.join()));
+            }
+        } else {
+            meters.recordRows(rowCount(result));
+        }
+        return result;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    /**
+     * Spring Data 리포지토리의 target은 JDK 동적 프록시이므로 클래스 이름 대신 사용자가 정의한 인터페이스 이름(MemberRepository)을 사용한다
+     */
+    private static String repositoryName(Object target) {
+        if (target instanceof Repository) {
+            for (Class<?> repositoryInterface : AopProxyUtils.proxiedUserInterfaces(target)) {
+                if (Repository.class.isAssignableFrom(repositoryInterface)) {
+                    return repositoryInterface.getSimpleName();
+                }
+            }
+        }
+        return AopUtils.getTargetClass(target).getSimpleName();
+    }
+
+    // -1: 셀 수 없음 (Stream 등)
+    private static long rowCount(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Slice<?> slice) { // Page 포함
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof Integer affectedRows) { // @Modifying 쿼리, saveAllInBatch
+            return affectedRows;
+        }
+        if (result instanceof Iterable<?> || result instanceof BaseStream<?, ?>) {
+            return -1;
+        }
+        return 1; // 단건 엔티티, count() 같은 집계 값
+    }
+
+    private record MeterKey(Class<?> targetType, String method) {
+    }
+
+    // 리포지토리 메소드 하나의 meter. exception tag는 실패한 예외 종류마다 하나씩 만든다
+    private class RepositoryMeters {
+
+        private final Tags tags;
+        private final DistributionSummary rows;
+        private final DistributionSummary statements;
+        private final DistributionSummary entities;
+        private final Timer success;
+        private final Map<String, Timer> errors = new ConcurrentHashMap<>();
+
+        RepositoryMeters(String repository, String method) {
+            this.tags = Tags.of("repository", repository, "method", method);
+            this.rows = summary("repository.rows");
+            this.statements = summary("repository.sql.statements");
+            this.entities = summary("repository.entities.loaded");
+            this.success = timer("SUCCESS", "none");
+        }
+
+        Timer invocations(Throwable error) {
+            if (error == null) {
+                return success;
+            }
+            return errors.computeIfAbsent(error.getClass().getSimpleName(), exception -> timer("ERROR", exception));
+        }
+
+        void recordRows(long count) {
+            if (count >= 0) {
+                rows.record(count);
+            }
+        }
+
+        void recordCounts(long statementsBefore, long entitiesBefore) {
+            statements.record(sqlStatementCounter.current() - statementsBefore);
+            entities.record(entityLoadCounter.current() - entitiesBefore);
+        }
+
+        private DistributionSummary summary(String name) {
+            return DistributionSummary.builder(name)
+                    .tags(tags)
+                    .register(meterRegistry);
+        }
+
+        private Timer timer(String outcome, String exception) {
+            return Timer.builder("repository.invocations")
+                    .tags(tags)
+                    .tag("outcome", outcome)
+                    .tag("exception", exception)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+    }
+}
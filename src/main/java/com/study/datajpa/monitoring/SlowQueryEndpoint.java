@@ -0,0 +1,68 @@
+package com.study.datajpa.monitoring;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * GET    /actuator/slowqueries : 느린 쿼리 목록 (총 소요 시간 순) + 실행 계획 + 인덱스 제안
+ * POST   /actuator/slowqueries : 재시작 없이 설정 변경  ex) {"enabled": true, "thresholdMillis": 50}
+ * DELETE /actuator/slowqueries : 모은 쿼리 초기화
+ */
+@Component
+@Endpoint(id = "slowqueries")
+@RequiredArgsConstructor
+public class SlowQueryEndpoint {
+
+    private final SlowQueryProperties properties;
+    private final SlowQueryReport report;
+
+    @ReadOperation
+    public Map<String, Object> report() {
+        List<SlowQueryReport.View> queries = report.snapshot();
+        Map<String, Object> result = settings();
+        result.put("dropped", report.dropped());
+        result.put("suggestions", queries.stream()
+                .filter(query -> query.plan() != null)
+                .flatMap(query -> query.plan().suggestions().stream())
+                .distinct()
+                .toList());
+        result.put("queries", queries);
+        return result;
+    }
+
+    @WriteOperation
+    public Map<String, Object> update(@Nullable Boolean enabled, @Nullable Long thresholdMillis) {
+        if (thresholdMillis != null && thresholdMillis < 0) {
+            throw new IllegalArgumentException("thresholdMillis must not be negative");
+        }
+        if (enabled != null) {
+            properties.setEnabled(enabled);
+        }
+        if (thresholdMillis != null) {
+            properties.setThreshold(Duration.ofMillis(thresholdMillis));
+        }
+        return settings();
+    }
+
+    @DeleteOperation
+    public void clear() {
+        report.clear();
+    }
+
+    private Map<String, Object> settings() {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("enabled", properties.isEnabled());
+        settings.put("thresholdMillis", properties.getThreshold().toMillis());
+        return settings;
+    }
+}
@@ -0,0 +1,44 @@
+package com.study.datajpa.monitoring;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * threshold 이상 걸린 SQL을 SlowQueryReport에 모으고, 처음 보는(또는 오래전에 EXPLAIN한) SQL이면 실행 계획을 구한다
+ * 빠른 SQL은 시간 비교 한 번으로 끝난다. 문자열은 느린 SQL일 때만 만든다
+ *
+ * 조회: /actuator/slowqueries
+ */
+@Component
+@RequiredArgsConstructor
+public class SlowQueryListener extends SimpleJdbcEventListener {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final SlowQueryProperties properties;
+    private final SlowQueryReport report;
+    private final QueryPlanExplainer explainer;
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        if (!properties.isEnabled() || timeElapsedNanos < properties.getThreshold().toNanos()) {
+            return;
+        }
+        String sql = statementInformation.getSql();
+        if (sql == null || sql.regionMatches(true, 0, "explain", 0, 7)) {
+            return; // QueryPlanExplainer가 실행한 EXPLAIN
+        }
+        // 파라미터(?)가 그대로인 SQL을 기준으로 모은다 => 파라미터만 다른 실행은 같은 쿼리
+        SlowQueryReport.Entry entry = report.record(WHITESPACE.matcher(sql.strip()).replaceAll(" "),
+                TimeUnit.NANOSECONDS.toMicros(timeElapsedNanos));
+        if (entry != null) {
+            explainer.explainLater(entry, statementInformation.getSqlWithValues());
+        }
+    }
+}
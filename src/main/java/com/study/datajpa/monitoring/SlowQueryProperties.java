@@ -0,0 +1,29 @@
+package com.study.datajpa.monitoring;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 느린 쿼리 수집 설정 (application.yml의 app.slow-query)
+ * threshold는 실행 중에도 /actuator/slowqueries(POST)로 바꿀 수 있으므로 volatile로 둔다
+ *
+ * - analyze: select는 EXPLAIN ANALYZE(쿼리를 한 번 더 실행해서 실제로 읽은 행 수까지 기록), false면 EXPLAIN만
+ *   insert/update/delete와 select ... for update/for share는 항상 EXPLAIN만 한다 (ANALYZE는 실제로 수정하거나 락을 건다)
+ * - reexplainAfter: 같은 쿼리는 이 시간이 지나기 전에는 다시 EXPLAIN하지 않는다
+ * - maxQueries: 보관하는 쿼리(파라미터를 제외한 SQL) 종류 수. 넘으면 새 쿼리는 버린다
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.slow-query")
+public class SlowQueryProperties {
+
+    private volatile boolean enabled = true;
+    private volatile Duration threshold = Duration.ofMillis(200);
+    private boolean analyze = true;
+    private Duration reexplainAfter = Duration.ofMinutes(10);
+    private int maxQueries = 200;
+    private int explainQueueCapacity = 16;
+}
@@ -0,0 +1,113 @@
+package com.study.datajpa.monitoring;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 느린 쿼리를 SQL(파라미터 제외)별로 모아둔다. 실행 계획과 인덱스 제안은 QueryPlanExplainer가 채운다
+ *
+ * 쿼리를 실행한 스레드는 카운터만 올린다 (락 없음). EXPLAIN을 해야 하는지도 여기서 CAS로 한 스레드만 결정한다
+ */
+public class SlowQueryReport {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxQueries;
+    private final Duration reexplainAfter;
+    private final LongAdder dropped = new LongAdder();
+
+    public SlowQueryReport(int maxQueries, Duration reexplainAfter) {
+        this.maxQueries = maxQueries;
+        this.reexplainAfter = reexplainAfter;
+    }
+
+    /**
+     * @return EXPLAIN을 실행해야 하면 해당 entry, 아니면 null
+     */
+    public Entry record(String sql, long elapsedMicros) {
+        Entry entry = entries.get(sql);
+        if (entry == null) {
+            if (entries.size() >= maxQueries) {
+                dropped.increment();
+                return null;
+            }
+            entry = entries.computeIfAbsent(sql, Entry::new);
+        }
+        entry.count.increment();
+        entry.totalMicros.add(elapsedMicros);
+        entry.maxMicros.accumulate(elapsedMicros);
+        entry.lastSeenAt = Instant.now();
+
+        long now = System.nanoTime();
+        long scheduled = entry.explainScheduledAt.get();
+        boolean due = scheduled == 0 || now - scheduled >= reexplainAfter.toNanos();
+        return due && entry.explainScheduledAt.compareAndSet(scheduled, now) ? entry : null;
+    }
+
+    public List<View> snapshot() {
+        return entries.values().stream()
+                .map(Entry::view)
+                .sorted(Comparator.comparingLong(View::totalMicros).reversed()) // DB 시간을 가장 많이 쓴 쿼리부터
+                .toList();
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    public void clear() {
+        entries.clear();
+        dropped.reset();
+    }
+
+    public static final class Entry {
+
+        private final String sql;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalMicros = new LongAdder();
+        private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+        private final AtomicLong explainScheduledAt = new AtomicLong(); // System.nanoTime(), 0이면 아직 안함
+        private volatile Instant lastSeenAt;
+        private volatile Plan plan;
+
+        private Entry(String sql) {
+            this.sql = sql;
+        }
+
+        public String sql() {
+            return sql;
+        }
+
+        void explained(Plan plan) {
+            this.plan = plan;
+        }
+
+        // EXPLAIN 작업을 버렸을 때(큐가 가득 참) 다음 실행에서 다시 시도하도록
+        void explainSkipped() {
+            explainScheduledAt.set(0);
+        }
+
+        private View view() {
+            return new View(sql, count.sum(), totalMicros.sum(), maxMicros.get(), lastSeenAt, plan);
+        }
+    }
+
+    /**
+     * @param explainedSql EXPLAIN한 SQL (파라미터 포함)
+     * @param plan         DB가 반환한 실행 계획. 실패했으면 null
+     * @param scannedRows  EXPLAIN ANALYZE의 scanCount 합계. ANALYZE하지 않았으면 null
+     * @param suggestions  추가하면 좋을 인덱스 (IndexAdvisor)
+     */
+    public record Plan(Instant explainedAt, String explainedSql, String plan, Long scannedRows,
+                      List<String> suggestions, String error) {
+    }
+
+    public record View(String sql, long count, long totalMicros, long maxMicros, Instant lastSeenAt, Plan plan) {
+    }
+}
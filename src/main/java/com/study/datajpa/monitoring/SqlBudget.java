@@ -0,0 +1,4 @@
+package com.study.datajpa.monitoring;
+
+public record SqlBudget(int maxStatements, int maxRepeatedSelects, SqlBudgetProperties.Mode mode) {
+}
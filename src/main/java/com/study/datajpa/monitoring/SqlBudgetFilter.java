@@ -0,0 +1,32 @@
+package com.study.datajpa.monitoring;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// HTTP 요청 하나를 SQL 예산 구간으로 묶는다
+@Component
+@RequiredArgsConstructor
+public class SqlBudgetFilter extends OncePerRequestFilter {
+
+    private final SqlBudgetProperties properties;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try (SqlStatementScope scope = SqlStatementScope.open(request.getMethod() + " " + request.getRequestURI(), properties.requestBudget())) {
+            filterChain.doFilter(request, response);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.study.datajpa.monitoring;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * HTTP 요청, 트랜잭션 단위의 SQL 예산 (application.yml의 app.sql-budget)
+ * - 운영: mode=warn → 예산을 넘으면 로그만 남긴다
+ * - 테스트: mode=fail → 예산을 넘는 순간 SqlBudgetExceededException이 발생한다 (src/test/resources/application.properties)
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.sql-budget")
+public class SqlBudgetProperties {
+
+    public enum Mode { WARN, FAIL }
+
+    private boolean enabled = true;
+    private Mode mode = Mode.WARN;
+    private int maxStatementsPerRequest = 30;
+    private int maxStatementsPerTransaction = 50;
+
+    // 똑같은 select가 이 횟수보다 많이 나가면 N + 1로 판단한다 (ex. member.getTeam().getName()을 반복문에서 호출)
+    private int maxRepeatedSelects = 5;
+
+    public SqlBudget requestBudget() {
+        return new SqlBudget(maxStatementsPerRequest, maxRepeatedSelects, mode);
+    }
+
+    public SqlBudget transactionBudget() {
+        return new SqlBudget(maxStatementsPerTransaction, maxRepeatedSelects, mode);
+    }
+}
@@ -0,0 +1,65 @@
+package com.study.datajpa.monitoring;
+
+import java.util.Map;
+
+/**
+ * 테스트에서 SQL 개수를 검증하기 위한 API
+ *
+ * try (SqlCapture capture = SqlCapture.start()) {
+ *     memberRepository.findMemberFetchJoin().forEach(m -> m.getTeam().getName());
+ *     capture.assertSelectCount(1).assertNoRepeatedSelects();
+ * }
+ *
+ * JUnit, AssertJ에 의존하지 않도록 실패하면 AssertionError를 던진다
+ */
+public class SqlCapture implements AutoCloseable {
+
+    private final SqlStatementScope scope;
+
+    private SqlCapture(SqlStatementScope scope) {
+        this.scope = scope;
+    }
+
+    public static SqlCapture start() {
+        return new SqlCapture(SqlStatementScope.open("SqlCapture", null));
+    }
+
+    public int statementCount() {
+        return scope.getTotal();
+    }
+
+    public int selectCount() {
+        return scope.getSelects();
+    }
+
+    public Map<String, Integer> repeatedSelects() {
+        return scope.repeatedSelects();
+    }
+
+    public SqlCapture assertStatementCount(int expected) {
+        if (scope.getTotal() != expected) {
+            throw new AssertionError("expected " + expected + " SQL statements but was " + scope.getTotal());
+        }
+        return this;
+    }
+
+    public SqlCapture assertSelectCount(int expected) {
+        if (scope.getSelects() != expected) {
+            throw new AssertionError("expected " + expected + " select statements but was " + scope.getSelects());
+        }
+        return this;
+    }
+
+    public SqlCapture assertNoRepeatedSelects() {
+        Map<String, Integer> repeated = scope.repeatedSelects();
+        if (!repeated.isEmpty()) {
+            throw new AssertionError("possible N + 1, repeated selects: " + repeated);
+        }
+        return this;
+    }
+
+    @Override
+    public void close() {
+        scope.close();
+    }
+}
@@ -0,0 +1,59 @@
+package com.study.datajpa.monitoring;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Hibernate가 JDBC statement를 준비(prepare)할 때마다 호출되는 StatementInspector
+ * 1. 스레드별로 실행한 SQL 개수를 센다. 값은 계속 증가만 하므로 사용하는 쪽에서 전/후 차이를 계산한다.
+ * 2. 열려있는 SqlStatementScope(요청, 트랜잭션, SqlCapture)에 SQL을 기록한다. 예산 검사는 scope가 한다
+ *
+ * 트랜잭션 구간은 트랜잭션 안에서 첫 SQL이 나갈 때 열고, 트랜잭션이 끝나면(afterCompletion) 닫는다
+ *
+ * 등록: JpaMonitoringConfig (hibernate.session_factory.statement_inspector)
+ */
+@Component
+@RequiredArgsConstructor
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+    private static final Object TRANSACTION_SCOPE_KEY = new Object();
+
+    private final SqlBudgetProperties budgetProperties;
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        if (budgetProperties.isEnabled()) {
+            openTransactionScopeIfNecessary();
+        }
+        for (SqlStatementScope scope : SqlStatementScope.active()) {
+            scope.record(sql);
+        }
+        return sql; // SQL은 변경하지 않는다
+    }
+
+    private void openTransactionScopeIfNecessary() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(TRANSACTION_SCOPE_KEY)) {
+            return;
+        }
+        String name = "tx " + TransactionSynchronizationManager.getCurrentTransactionName();
+        SqlStatementScope scope = SqlStatementScope.open(name, budgetProperties.transactionBudget());
+        TransactionSynchronizationManager.bindResource(TRANSACTION_SCOPE_KEY, scope);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_SCOPE_KEY);
+                scope.close();
+            }
+        });
+    }
+
+    public long current() {
+        return COUNT.get()[0];
+    }
+}
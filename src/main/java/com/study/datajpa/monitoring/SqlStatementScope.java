@@ -0,0 +1,108 @@
+package com.study.datajpa.monitoring;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * SQL을 세는 구간 (HTTP 요청 하나, 트랜잭션 하나, 테스트의 SqlCapture 하나)
+ * 한 스레드에 여러 구간이 겹쳐서 열릴 수 있고(요청 > 트랜잭션), SqlStatementCounter가 열려있는 모든 구간에 SQL을 기록한다.
+ *
+ * budget이 있으면 기록할 때마다 예산을 검사한다. 같은 종류의 위반은 구간당 한 번만 알린다
+ */
+@Slf4j
+public class SqlStatementScope implements AutoCloseable {
+
+    private static final ThreadLocal<Deque<SqlStatementScope>> ACTIVE = ThreadLocal.withInitial(ArrayDeque::new);
+
+    @Getter
+    private final String name;
+    private final SqlBudget budget; // null이면 세기만 한다
+    private final Map<String, Integer> counts = new LinkedHashMap<>(); // SQL별 실행 횟수
+    @Getter
+    private int total;
+    @Getter
+    private int selects;
+    private boolean totalExceeded;
+    private boolean repeatExceeded;
+
+    private SqlStatementScope(String name, SqlBudget budget) {
+        this.name = name;
+        this.budget = budget;
+    }
+
+    public static SqlStatementScope open(String name, SqlBudget budget) {
+        SqlStatementScope scope = new SqlStatementScope(name, budget);
+        ACTIVE.get().push(scope);
+        return scope;
+    }
+
+    static Iterable<SqlStatementScope> active() {
+        return ACTIVE.get();
+    }
+
+    @Override
+    public void close() {
+        Deque<SqlStatementScope> scopes = ACTIVE.get();
+        scopes.remove(this); // 트랜잭션 구간은 요청 구간보다 먼저 닫히지만, 순서가 어긋나도 자기 자신만 제거한다
+        if (scopes.isEmpty()) {
+            ACTIVE.remove();
+        }
+    }
+
+    void record(String sql) {
+        int count = counts.merge(sql, 1, Integer::sum);
+        total++;
+        boolean select = isSelect(sql);
+        if (select) {
+            selects++;
+        }
+        if (budget == null) {
+            return;
+        }
+
+        if (!totalExceeded && total > budget.maxStatements()) {
+            totalExceeded = true;
+            violation(String.format("[%s] SQL budget exceeded: %d statements (max %d)", name, total, budget.maxStatements()));
+        }
+        if (!repeatExceeded && select && count > budget.maxRepeatedSelects()) {
+            repeatExceeded = true;
+            violation(String.format("[%s] possible N + 1: same select executed %d times (max %d)." +
+                            " Consider fetch join, @EntityGraph or batch fetching.%n%s",
+                    name, count, budget.maxRepeatedSelects(), sql));
+        }
+    }
+
+    private void violation(String message) {
+        if (budget.mode() == SqlBudgetProperties.Mode.FAIL) {
+            throw new SqlBudgetExceededException(message);
+        }
+        log.warn(message);
+    }
+
+    public int count(String sql) {
+        return counts.getOrDefault(sql, 0);
+    }
+
+    // 2번 이상 실행된 select와 그 횟수
+    public Map<String, Integer> repeatedSelects() {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        counts.forEach((sql, count) -> {
+            if (count > 1 && isSelect(sql)) {
+                repeated.put(sql, count);
+            }
+        });
+        return repeated;
+    }
+
+    // 시퀀스 조회(select next value for member_seq)는 N + 1이 아니므로 제외
+    private static boolean isSelect(String sql) {
+        String trimmed = sql.stripLeading();
+        boolean select = trimmed.regionMatches(true, 0, "select", 0, 6) || trimmed.regionMatches(true, 0, "with", 0, 4);
+        return select && !trimmed.contains("next value for") && !trimmed.contains("nextval(");
+    }
+}
@@ -0,0 +1,6 @@
+package com.study.datajpa.monitoring;
+
+import java.time.Instant;
+
+public record SqlTrace(Instant executedAt, long elapsedMicros, boolean slow, String sql, String error) {
+}
@@ -0,0 +1,62 @@
+package com.study.datajpa.monitoring;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * GET  /actuator/sqltrace : 현재 설정 + 최근 trace
+ * POST /actuator/sqltrace : 재시작 없이 설정 변경
+ *      ex) {"mode": "SLOW_ONLY", "slowThresholdMillis": 100}
+ */
+@Component
+@Endpoint(id = "sqltrace")
+@RequiredArgsConstructor
+public class SqlTraceEndpoint {
+
+    private static final int RECENT_LIMIT = 100;
+
+    private final SqlTraceProperties properties;
+    private final SqlTraceRingBuffer ringBuffer;
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        Map<String, Object> status = settings();
+        status.put("recent", ringBuffer.snapshot(RECENT_LIMIT));
+        return status;
+    }
+
+    @WriteOperation
+    public Map<String, Object> update(@Nullable SqlTraceProperties.Mode mode,
+                                      @Nullable Double sampleRate,
+                                      @Nullable Long slowThresholdMillis) {
+        if (sampleRate != null && (sampleRate < 0 || sampleRate > 1)) {
+            throw new IllegalArgumentException("sampleRate must be between 0 and 1");
+        }
+        if (mode != null) {
+            properties.setMode(mode);
+        }
+        if (sampleRate != null) {
+            properties.setSampleRate(sampleRate);
+        }
+        if (slowThresholdMillis != null) {
+            properties.setSlowThreshold(Duration.ofMillis(slowThresholdMillis));
+        }
+        return settings();
+    }
+
+    private Map<String, Object> settings() {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("mode", properties.getMode());
+        settings.put("sampleRate", properties.getSampleRate());
+        settings.put("slowThresholdMillis", properties.getSlowThreshold().toMillis());
+        return settings;
+    }
+}
@@ -0,0 +1,62 @@
+package com.study.datajpa.monitoring;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * p6spy 대신 사용하는 SQL trace
+ *
+ * p6spy의 기본 로깅(과 format_sql, org.hibernate.SQL: debug)은 모든 SQL마다 파라미터를 채운 문자열을 만들고 동기적으로 출력한다.
+ * 여기서는 p6spy의 JDBC 이벤트(실행 시간 포함)만 받아서
+ * 1. 기록할지를 먼저 결정하고 (느린 SQL, 샘플링) 기록할 때만 문자열을 만든다
+ * 2. ring buffer(/actuator/sqltrace)에 넣고, "sql.trace" 로거로 남긴다. 이 로거는 logback-spring.xml에서 AsyncAppender를 거치므로
+ *    SQL을 실행한 스레드는 I/O를 기다리지 않는다 (큐가 가득 차면 버린다)
+ *
+ * p6spy-spring-boot-starter가 JdbcEventListener 타입의 Bean을 자동으로 등록해준다
+ */
+@Component
+@RequiredArgsConstructor
+public class SqlTraceListener extends SimpleJdbcEventListener {
+
+    private static final Logger TRACE_LOG = LoggerFactory.getLogger("sql.trace");
+
+    private final SqlTraceProperties properties;
+    private final SqlTraceRingBuffer ringBuffer;
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        SqlTraceProperties.Mode mode = properties.getMode();
+        if (mode == SqlTraceProperties.Mode.OFF) {
+            return;
+        }
+
+        boolean slow = timeElapsedNanos >= properties.getSlowThreshold().toNanos();
+        boolean record = switch (mode) {
+            case ALL -> true;
+            case SLOW_ONLY -> slow;
+            case SAMPLED -> slow || e != null || ThreadLocalRandom.current().nextDouble() < properties.getSampleRate();
+            case OFF -> false;
+        };
+        if (!record) {
+            return;
+        }
+
+        SqlTrace trace = new SqlTrace(Instant.now(), TimeUnit.NANOSECONDS.toMicros(timeElapsedNanos), slow,
+                statementInformation.getSqlWithValues(), e == null ? null : e.getMessage());
+        ringBuffer.add(trace);
+        if (slow) {
+            TRACE_LOG.warn("[slow {}us] {}", trace.elapsedMicros(), trace.sql());
+        } else {
+            TRACE_LOG.info("[{}us] {}", trace.elapsedMicros(), trace.sql());
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.study.datajpa.monitoring;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * SQL trace 설정 (application.yml의 app.sql-trace)
+ * 실행 중에도 /actuator/sqltrace(POST)로 바꿀 수 있으므로 volatile로 둔다
+ *
+ * - OFF: 기록하지 않음
+ * - SLOW_ONLY: slowThreshold 이상 걸린 SQL만
+ * - SAMPLED: 느린 SQL + 나머지는 sampleRate 확률로
+ * - ALL: 전부 (p6spy 로그와 같은 수준. 디버깅할 때만)
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.sql-trace")
+public class SqlTraceProperties {
+
+    public enum Mode { OFF, SLOW_ONLY, SAMPLED, ALL }
+
+    private volatile Mode mode = Mode.SAMPLED;
+    private volatile double sampleRate = 0.01;
+    private volatile Duration slowThreshold = Duration.ofMillis(200);
+    private int bufferSize = 1024; // 최근 trace를 보관하는 ring buffer 크기
+}
@@ -0,0 +1,39 @@
+package com.study.datajpa.monitoring;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 최근 SQL trace를 고정 크기로 보관하는 ring buffer
+ * 락 없이 칸만 덮어쓰므로 SQL을 실행하는 스레드가 기다리는 일이 없다. 오래된 trace는 그냥 덮어써진다
+ */
+public class SqlTraceRingBuffer {
+
+    private final AtomicReferenceArray<SqlTrace> slots;
+    private final AtomicLong sequence = new AtomicLong();
+
+    public SqlTraceRingBuffer(int capacity) {
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    public void add(SqlTrace trace) {
+        long next = sequence.getAndIncrement();
+        slots.set((int) (next % slots.length()), trace);
+    }
+
+    // 최신순
+    public List<SqlTrace> snapshot(int limit) {
+        long last = sequence.get();
+        int size = (int) Math.min(Math.min(last, slots.length()), limit);
+        List<SqlTrace> traces = new ArrayList<>(size);
+        for (long i = last - 1; i >= last - size; i--) {
+            SqlTrace trace = slots.get((int) (i % slots.length()));
+            if (trace != null) {
+                traces.add(trace);
+            }
+        }
+        return traces;
+    }
+}
@@ -0,0 +1,12 @@
+package com.study.datajpa.repository.datajpa;
+
+/**
+ * 벌크 연산 후 영속성 컨텍스트에 남아있는 엔티티를 어떻게 맞출지
+ * - EVICT: 영향받은 엔티티만 준영속 상태로 만든다. 다시 조회하면 DB에서 읽는다
+ * - REFRESH: 영향받은 엔티티만 DB에서 다시 읽어서 영속 상태를 유지한다 (엔티티마다 select 1번)
+ *
+ * 두 경우 모두 영향받지 않은 엔티티는 그대로 남는다 (@Modifying(clearAutomatically = true)는 전부 비운다)
+ */
+public enum BulkUpdateMode {
+    EVICT, REFRESH
+}
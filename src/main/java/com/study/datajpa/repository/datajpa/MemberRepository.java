@@ -1,5 +1,6 @@
 package com.study.datajpa.repository.datajpa;
 
+import com.study.datajpa.config.AsyncRepositoryConfig;
 import com.study.datajpa.dto.PMemberDTO;
 import com.study.datajpa.entity.Member;
 import jakarta.persistence.LockModeType;
@@ -9,10 +10,13 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 
 public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom {
@@ -33,8 +37,7 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     @Query("select new com.study.datajpa.dto.PMemberDTO(m.id, m.username, t.name) from Member m join m.team t")
     List<PMemberDTO> findMemberDTO();
 
-    @Query("select m from Member m where m.username in :names")
-    List<Member> findByNames(@Param("names") Collection<String> names);
+    // findByNames(Collection<String> names)는 MemberRepositoryCustom으로 이동 (IN 절 chunking)
 
     List<Member> findMemberListByUsername(String name); // return: 컬렉션
 
@@ -55,6 +58,24 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
      */
     Slice<Member> findSliceByAge(int age, Pageable pageable);
 
+    /**
+     * keyset(seek) 페이징. offset 대신 마지막으로 읽은 (username, id) 다음 행부터 조회한다
+     * 자세한 설명은 MemberJpaRepository.findByCursor() 참고
+     *
+     * Slice와 함께 쓰면 size + 1개를 조회해서 hasNext()를 알려준다.
+     * 단, Pageable은 항상 0페이지(PageRequest.ofSize(size))로 넘겨야 한다. 페이지 번호를 넘기면 다시 offset이 붙는다
+     */
+    @Query("select m from Member m where m.age = :age order by m.username desc, m.id desc")
+    Slice<Member> findKeysetByAge(@Param("age") int age, Pageable pageable);
+
+    @Query("select m from Member m where m.age = :age" +
+            " and (m.username < :username or (m.username = :username and m.id < :id))" +
+            " order by m.username desc, m.id desc")
+    Slice<Member> findKeysetByAgeAfter(@Param("age") int age,
+                                       @Param("username") String username,
+                                       @Param("id") Long id,
+                                       Pageable pageable);
+
     /**
      * 데이터가 많아지면 totalCount하는데 오래걸리므로 성능이슈가 발생할 수 있다.
      * 이를 대비해서 totalCount쿼리를 따로 작성한다
@@ -65,9 +86,7 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
             countQuery = "select count(m.username) from Member m")
     Page<Member> findMemberAllBy(Pageable pageable);
 
-    @Modifying(clearAutomatically = true) // em.clear()를 따로 해주지 않아도 된다
-    @Query("update Member m set m.age = m.age + 1 where m.age >= :age")
-    int updateAgeInBulk(@Param("age") int age);
+    // updateAgeInBulk(int age)는 MemberRepositoryCustom으로 이동 (team_stats를 같은 트랜잭션에서 갱신해야 하므로)
 
     @Query("select m from Member m join fetch m.team")
     List<Member> findMemberFetchJoin();
@@ -87,6 +106,34 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
      */
     // JPA구현체에게 알리는 힌트.
     @QueryHints(value = @QueryHint(name = "org.hibernate.readOnly", value = "true"))
+    @Transactional(readOnly = true) // 라우팅이 켜져 있으면 replica에서 조회한다 (ReadWriteRoutingDataSource)
     Member findReadOnlyByUsername(String username);
-}
 
+    /**
+     * 비관적 락: select ... for update. 트랜잭션이 끝날 때까지 다른 트랜잭션은 이 행을 수정하거나 for update로 읽을 수 없다
+     * 충돌이 잦은 행이라면 낙관적 락 + 재시도(OptimisticLockRetry)보다 나을 수 있다 (MemberLockingBenchmark)
+     * lock.timeout(ms) 안에 락을 얻지 못하면 PessimisticLockingFailureException
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "3000"))
+    @Query("select m from Member m where m.id = :id")
+    Optional<Member> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * 비동기 조회: 호출 즉시 CompletableFuture를 반환하고, 쿼리는 repositoryTaskExecutor(AsyncRepositoryConfig)에서 실행된다
+     * 여러 개를 동시에 실행하고 기다릴 때는 FanOut.awaitAll() 사용
+     *
+     * 주의
+     * - 다른 스레드에서 별도의 트랜잭션/영속성 컨텍스트로 실행되므로, 반환된 엔티티는 준영속 상태다 (lazy loading 불가 => DTO로 변환해서 사용)
+     * - 호출한 쪽 트랜잭션에서 아직 커밋되지 않은 데이터는 보이지 않는다
+     */
+    @Async(AsyncRepositoryConfig.REPOSITORY_TASK_EXECUTOR)
+    CompletableFuture<Member> findAsyncByUsername(String username); // 없으면 null
+
+    @Async(AsyncRepositoryConfig.REPOSITORY_TASK_EXECUTOR)
+    CompletableFuture<Page<Member>> findAsyncPageByAge(int age, Pageable pageable);
+
+    @Async(AsyncRepositoryConfig.REPOSITORY_TASK_EXECUTOR)
+    @Query("select new com.study.datajpa.dto.PMemberDTO(m.id, m.username, t.name) from Member m join m.team t")
+    CompletableFuture<List<PMemberDTO>> findAsyncMemberDTO();
+}
@@ -1,10 +1,64 @@
 package com.study.datajpa.repository.datajpa;
 
+import com.study.datajpa.dto.MemberDTO;
+import com.study.datajpa.dto.PMemberDTO;
 import com.study.datajpa.entity.Member;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
 
 // 사용자 정의 인터페이스
 public interface MemberRepositoryCustom {
     List<Member> findCustomMember();
+
+    /**
+     * findCustomMember(), findMemberDTO()의 Stream 버전. 전체를 List로 만들지 않고 fetch size만큼씩 DB에서 가져온다
+     * - 트랜잭션 안에서 호출해야 하고(커넥션을 계속 잡고 있음), 다 쓰면 반드시 close()할 것 (try-with-resources)
+     */
+    Stream<Member> streamCustomMember();
+
+    Stream<PMemberDTO> streamMemberDTO();
+
+    /**
+     * 영속성 컨텍스트를 거치지 않는 조회 전용 projection (StatelessSession + 람다 tuple mapper)
+     * - 엔티티를 만들지 않고, snapshot/영속성 컨텍스트 등록도 없다. DTO는 리플렉션이 아니라 생성자를 직접 호출해서 만든다
+     * - StatelessSession은 flush하지 않으므로 같은 트랜잭션에서 아직 flush되지 않은 변경은 보이지 않는다
+     */
+    List<PMemberDTO> findMemberDTOProjection();
+
+    List<MemberDTO> findMemberDTOProjectionByAge(int age);
+
+    List<String> findUsernamesProjection();
+
+    /**
+     * username in (...) 조회. names를 중복 제거 후 IN_CHUNK_SIZE개씩 나눠서 조회하고 합친다
+     * - 수만 개를 넘겨도 DB의 파라미터 개수 제한에 걸리지 않는다
+     * - hibernate.query.in_clause_parameter_padding으로 각 chunk의 파라미터 개수가 2의 거듭제곱으로 맞춰지므로 SQL 종류가 log2(chunk 크기)개를 넘지 않는다
+     */
+    List<Member> findByNames(Collection<String> names);
+
+    /**
+     * findByNames()의 병렬 버전. chunk마다 별도의 EntityManager(커넥션)로 executor에서 동시에 조회한다
+     * - 반환되는 member는 준영속 상태다 (호출한 쪽의 영속성 컨텍스트와 무관). 수정/lazy loading이 필요하면 findByNames() 사용
+     * - 동시에 커넥션을 chunk 수만큼 사용할 수 있으므로 executor의 크기를 커넥션 풀보다 작게 잡을 것
+     */
+    List<Member> findByNames(Collection<String> names, Executor executor);
+
+    /**
+     * age 이상인 member의 age + 1 (벌크 연산)
+     * 벌크 연산은 이벤트가 발생하지 않으므로 team_stats도 같은 트랜잭션에서 직접 갱신한다.
+     * 끝나면 영속성 컨텍스트를 비운다 (@Modifying(clearAutomatically = true)와 같음)
+     */
+    int updateAgeInBulk(int age);
+
+    /**
+     * updateAgeInBulk()와 같은 벌크 연산이지만 영속성 컨텍스트 전체를 clear하지 않는다
+     * update 대상 member만 영속성 컨텍스트(mode에 따라 evict/refresh)와 2차 캐시(member region)에서 정리한다
+     */
+    int updateAgeInBulk(int age, BulkUpdateMode mode);
+
+    // 대량 insert. JpaRepository.saveAll()과 달리 batch_size마다 flush + 그 batch만 detach해서 힙 사용량이 일정하다 (BatchPersister)
+    int saveAllInBatch(Iterable<Member> members);
 }
@@ -0,0 +1,13 @@
+package com.study.datajpa.repository.datajpa;
+
+import com.study.datajpa.entity.TeamStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+// team_stats는 TeamStatsTracker, TeamStatsMaintenance만 갱신한다. 여기서는 조회만 할 것
+public interface TeamStatsRepository extends JpaRepository<TeamStats, Long> {
+
+    // 팀에 소속된 member 수. member 테이블이 아니라 team 수만큼만 읽는다
+    @Query("select coalesce(sum(s.memberCount), 0) from TeamStats s")
+    long sumMemberCount();
+}
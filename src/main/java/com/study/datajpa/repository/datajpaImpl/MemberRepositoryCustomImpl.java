@@ -1,15 +1,46 @@
 package com.study.datajpa.repository.datajpaImpl;
 
+import com.study.datajpa.dto.MemberDTO;
+import com.study.datajpa.dto.PMemberDTO;
 import com.study.datajpa.entity.Member;
+import com.study.datajpa.repository.datajpa.BulkUpdateMode;
 import com.study.datajpa.repository.datajpa.MemberRepositoryCustom;
+import com.study.datajpa.stats.TeamStatsMaintenance;
+import com.study.datajpa.support.BatchPersister;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.LockModeType;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Cache;
+import org.hibernate.Session;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.query.NativeQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 @RequiredArgsConstructor
 public class MemberRepositoryCustomImpl implements MemberRepositoryCustom {
 
+    private static final int STREAM_FETCH_SIZE = 500; // JDBC 드라이버가 한 번에 가져오는 행 수
+    private static final int IN_CHUNK_SIZE = 512; // IN 절 하나의 최대 파라미터 수. padding해도 넘지 않도록 2의 거듭제곱
+    private static final String BULK_QUERY_SPACE = "member_bulk_targeted"; // 어떤 엔티티 테이블과도 겹치지 않는 query space
+    private static final String FIND_BY_NAMES = "select m from Member m where m.username in :names";
+
     /**
      * <사용자 정의 리포지토리>
      * 복잡한 쿼리가 필요한 경우 repository를 custom해서 사용
@@ -27,10 +58,243 @@ public class MemberRepositoryCustomImpl implements MemberRepositoryCustom {
      */
 
     private final EntityManager em; // 생성자가 하나만 있으면 Spring이 그 생성자를 사용하여 의존성을 자동으로 주입한다.
+    private final TeamStatsMaintenance teamStatsMaintenance;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}")
+    private int batchSize; // final이 아니므로 생성자 주입 대상이 아님. 필드 주입
 
     @Override
     public List<Member> findCustomMember() {
         return em.createQuery("select m from Member m")
                 .getResultList();
     }
+
+    /**
+     * getResultList()는 전체 결과를 List와 영속성 컨텍스트에 올리므로 힙 사용량이 테이블 크기에 비례한다.
+     * getResultStream()은 내부적으로 ScrollableResults를 사용해서 fetch size만큼씩 가져온다.
+     *
+     * 단, 일반 Session으로 읽으면 조회한 엔티티가 영속성 컨텍스트에 계속 쌓인다. clear()로 비우면 호출한 쪽이 들고 있던 엔티티까지 준영속이 되고,
+     * detach()로 하나씩 빼면 호출한 쪽이 이미 들고 있던 같은 member(같은 인스턴스가 반환된다)까지 준영속이 된다.
+     * 따라서 현재 트랜잭션의 커넥션으로 연 StatelessSession으로 읽는다 => 영속성 컨텍스트, snapshot 없이 만들어지고 바로 버려진다
+     * 스트림으로 받은 member는 수정해도 반영되지 않고, team을 lazy loading할 수도 없다
+     */
+    @Override
+    public Stream<Member> streamCustomMember() {
+        StatelessSession statelessSession = openStatelessSession();
+        return statelessSession.createQuery("select m from Member m", Member.class)
+                .setFetchSize(STREAM_FETCH_SIZE)
+                .getResultStream()
+                .onClose(statelessSession::close); // 커넥션은 트랜잭션이 끝날 때 반납된다
+    }
+
+    // DTO는 엔티티가 아니므로 영속성 컨텍스트에 쌓이지 않는다. fetch size만 지정
+    @Override
+    public Stream<PMemberDTO> streamMemberDTO() {
+        return em.createQuery("select new com.study.datajpa.dto.PMemberDTO(m.id, m.username, t.name) from Member m join m.team t", PMemberDTO.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .getResultStream();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<PMemberDTO> findMemberDTOProjection() {
+        return project("select m.id, m.username, t.name from Member m join m.team t", Map.of(),
+                tuple -> new PMemberDTO((Long) tuple[0], (String) tuple[1], (String) tuple[2]));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<MemberDTO> findMemberDTOProjectionByAge(int age) {
+        return project("select m.id, m.username, m.age from Member m where m.age = :age", Map.of("age", age),
+                tuple -> new MemberDTO((Long) tuple[0], (String) tuple[1], (Integer) tuple[2]));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<String> findUsernamesProjection() {
+        return project("select m.username from Member m join m.team t", Map.of(), tuple -> (String) tuple[0]);
+    }
+
+    /**
+     * 현재 트랜잭션의 커넥션으로 StatelessSession을 열어서 조회하고, 각 행(Object[])을 mapper로 바로 변환한다
+     * select 절에는 엔티티가 아니라 컬럼(스칼라)만 적을 것. 엔티티를 select하면 StatelessSession이라도 엔티티를 만든다
+     */
+    private <T> List<T> project(String hql, Map<String, Object> parameters, Function<Object[], T> mapper) {
+        try (StatelessSession statelessSession = openStatelessSession()) {
+            var query = statelessSession.createQuery(hql, Object[].class)
+                    .setFetchSize(STREAM_FETCH_SIZE);
+            parameters.forEach(query::setParameter);
+            return query.setTupleTransformer((tuple, aliases) -> mapper.apply(tuple))
+                    .getResultList();
+        }
+    }
+
+    /**
+     * 현재 트랜잭션의 커넥션으로 StatelessSession을 연다 (streamCustomMember, project)
+     * 커넥션은 트랜잭션이 끝날 때 반납되므로, StatelessSession은 다 쓰고 닫기만 하면 된다
+     */
+    private StatelessSession openStatelessSession() {
+        Session session = em.unwrap(Session.class);
+        session.flush(); // 일반 쿼리의 auto flush 대신. StatelessSession은 flush되지 않은 변경을 보지 못한다
+        return session.doReturningWork(connection -> session.getSessionFactory()
+                .withStatelessOptions()
+                .connection(connection)
+                .openStatelessSession());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Member> findByNames(Collection<String> names) {
+        List<Member> result = new ArrayList<>();
+        for (List<String> chunk : chunk(names)) {
+            result.addAll(em.createQuery(FIND_BY_NAMES, Member.class)
+                    .setParameter("names", chunk)
+                    .getResultList());
+        }
+        return result;
+    }
+
+    // 공유 EntityManager(em)는 스레드 간에 쓸 수 없으므로 chunk마다 EntityManagerFactory에서 새로 만들고 조회 후 닫는다
+    @Override
+    public List<Member> findByNames(Collection<String> names, Executor executor) {
+        EntityManagerFactory emf = em.getEntityManagerFactory();
+        List<CompletableFuture<List<Member>>> futures = chunk(names).stream()
+                .map(chunk -> CompletableFuture.supplyAsync(() -> {
+                    EntityManager chunkEm = emf.createEntityManager();
+                    try {
+                        return chunkEm.createQuery(FIND_BY_NAMES, Member.class)
+                                .setParameter("names", chunk)
+                                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                                .getResultList();
+                    } finally {
+                        chunkEm.close();
+                    }
+                }, executor))
+                .toList();
+
+        List<Member> result = new ArrayList<>();
+        for (CompletableFuture<List<Member>> future : futures) {
+            result.addAll(future.join());
+        }
+        return result;
+    }
+
+    private static List<List<String>> chunk(Collection<String> names) {
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(names));
+        List<List<String>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += IN_CHUNK_SIZE) {
+            chunks.add(distinct.subList(from, Math.min(from + IN_CHUNK_SIZE, distinct.size())));
+        }
+        return chunks;
+    }
+
+    @Override
+    @Transactional
+    public int updateAgeInBulk(int age) {
+        teamStatsMaintenance.applyBulkAgeIncrement(age); // update 전에 실행해야 한다
+        int updated = em.createQuery("update versioned Member m set m.age = m.age + 1 where m.age >= :age") // versioned: version도 함께 증가 (낙관적 락)
+                .setParameter("age", age)
+                .executeUpdate();
+        em.clear();
+        return updated;
+    }
+
+    /**
+     * 1. 아직 flush되지 않은 변경을 먼저 반영하고, update 조건에 걸리는 id를 IN_CHUNK_SIZE개씩 id 순으로 잠그면서(select ... for update) 조회한다
+     *    잠근 행만 id로 update하므로 조회와 update 사이에 조건에 새로 걸리게 된 행이 캐시 evict 없이 update되는 일이 없다
+     * 2. update는 네이티브 쿼리로 실행한다
+     *    - JPQL 벌크 연산은 member region 전체를, synchronized space가 없는 네이티브 쿼리는 모든 region을 비운다
+     *    - 엔티티와 무관한 query space를 지정해서 Hibernate가 아무 region도 비우지 않게 하고, 대신 잠근 id만 직접 evict한다
+     * 3. 영속성 컨텍스트에 있는 member 중 잠근 id만 evict/refresh한다
+     * 4. 커밋 전에 다른 트랜잭션이 예전 값을 다시 2차 캐시에 넣을 수 있으므로 트랜잭션이 끝난 뒤(afterCompletion)에 한 번 더 evict한다
+     *    id가 MAX_TRACKED_IDS개를 넘으면 id를 모두 들고 있지 않고 member region 전체를 비운다
+     */
+    @Override
+    @Transactional
+    public int updateAgeInBulk(int age, BulkUpdateMode mode) {
+        em.flush();
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(Member.class);
+        AfterCommitEviction afterCommitEviction = new AfterCommitEviction(session.getFactory().getCache());
+        TransactionSynchronizationManager.registerSynchronization(afterCommitEviction);
+
+        int updated = 0;
+        long lastId = Long.MIN_VALUE;
+        while (true) {
+            List<Long> ids = em.createQuery("select m.id from Member m where m.age >= :age and m.id > :lastId order by m.id", Long.class)
+                    .setParameter("age", age)
+                    .setParameter("lastId", lastId)
+                    .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                    .setMaxResults(IN_CHUNK_SIZE)
+                    .getResultList();
+            if (ids.isEmpty()) {
+                return updated;
+            }
+            lastId = ids.get(ids.size() - 1);
+            teamStatsMaintenance.applyAgeIncrement(ids);
+
+            updated += em.createNativeQuery("update member set age = age + 1, version = version + 1 where member_id in (:ids)")
+                    .unwrap(NativeQuery.class)
+                    .addSynchronizedQuerySpace(BULK_QUERY_SPACE)
+                    .setParameter("ids", ids)
+                    .executeUpdate();
+
+            for (Long id : ids) {
+                session.getFactory().getCache().evictEntityData(Member.class, id);
+                afterCommitEviction.add(id);
+                Object managed = session.getPersistenceContextInternal().getEntity(session.generateEntityKey(id, persister));
+                if (managed != null) {
+                    if (mode == BulkUpdateMode.REFRESH) {
+                        em.refresh(managed);
+                    } else {
+                        em.detach(managed);
+                    }
+                }
+            }
+        }
+    }
+
+    private static class AfterCommitEviction implements TransactionSynchronization {
+
+        private static final int MAX_TRACKED_IDS = 10_000;
+
+        private final Cache cache;
+        private final List<Long> ids = new ArrayList<>();
+        private boolean overflow;
+
+        AfterCommitEviction(Cache cache) {
+            this.cache = cache;
+        }
+
+        void add(Long id) {
+            if (overflow) {
+                return;
+            }
+            if (ids.size() == MAX_TRACKED_IDS) {
+                overflow = true;
+                ids.clear();
+                return;
+            }
+            ids.add(id);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            if (overflow) {
+                cache.evictEntityData(Member.class);
+            } else {
+                ids.forEach(id -> cache.evictEntityData(Member.class, id));
+            }
+        }
+    }
+
+    /**
+     * 사용자 정의 리포지토리 메소드에는 SimpleJpaRepository의 @Transactional이 적용되지 않으므로 직접 붙여준다.
+     * 자세한 설명은 MemberJpaRepository.saveAllInBatch() 참고
+     */
+    @Override
+    @Transactional
+    public int saveAllInBatch(Iterable<Member> members) {
+        return BatchPersister.persistAll(em, members, batchSize);
+    }
 }
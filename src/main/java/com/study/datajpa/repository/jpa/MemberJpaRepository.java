@@ -1,9 +1,14 @@
 package com.study.datajpa.repository.jpa;
 
 import com.study.datajpa.entity.Member;
+import com.study.datajpa.stats.TeamStatsMaintenance;
+import com.study.datajpa.support.BatchPersister;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -13,6 +18,12 @@ public class MemberJpaRepository {
     @PersistenceContext
     private EntityManager em;
 
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}")
+    private int batchSize;
+
+    @Autowired
+    private TeamStatsMaintenance teamStatsMaintenance;
+
     public EntityManager getEm(){
         return this.em;
     }
@@ -22,6 +33,25 @@ public class MemberJpaRepository {
         return member;
     }
 
+    /**
+     * 대량 insert용 save
+     * save()는 persist한 엔티티가 커밋 시점까지 전부 영속성 컨텍스트에 남아있으므로,
+     * 수백만 건을 넣으면 flush때마다 dirty checking 대상이 계속 늘어나고 결국 OOM이 난다.
+     *
+     * 동작 방식: batchSize(= hibernate.jdbc.batch_size)개 마다 flush()로 JDBC batch insert를 보내고
+     * 그 batch의 member만 detach한다. 따라서 힙 사용량은 batchSize만큼으로 일정하다. (BatchPersister)
+     *
+     * 주의
+     * - 호출이 끝나면 넘겨준 member들은 준영속 상태이다. 호출한 쪽이 들고 있던 다른 엔티티는 영속 상태 그대로이다 (clear하지 않음)
+     * - member가 참조하는 team은 미리 저장되어 있어야 한다 (준영속 team이어도 FK로만 쓰이므로 괜찮음)
+     * - changeTeam()을 쓰면 team.members에 member가 계속 쌓이므로 new Member(username, age, team)을 사용할 것
+     * - @GeneratedValue가 IDENTITY면 insert마다 id를 받아와야 해서 batch가 동작하지 않는다 (현재는 SEQUENCE)
+     */
+    @Transactional
+    public int saveAllInBatch(Iterable<Member> members) {
+        return BatchPersister.persistAll(em, members, batchSize);
+    }
+
     public void delete(Member member) {
         em.remove(member);
     }
@@ -58,6 +88,32 @@ public class MemberJpaRepository {
                 .getResultList();
     }
 
+    /**
+     * keyset(seek) 페이징
+     * findByPage()의 offset은 DB가 앞의 offset개 행을 전부 읽고 버려야 하므로 뒤 페이지로 갈수록 느려진다.
+     * 대신 마지막으로 읽은 행의 정렬 키(username, id)보다 뒤에 있는 행부터 limit개만 읽는다. 페이지 깊이와 상관없이 비용이 일정하다.
+     * - username이 같은 행이 여러 개일 수 있으므로 id를 정렬 키에 추가해서 순서를 유일하게 만든다
+     * - (age, username, member_id) 인덱스가 있으면 인덱스를 따라 바로 seek한다
+     * - 첫 페이지는 lastUsername, lastId를 null로 넘긴다
+     */
+    public List<Member> findByCursor(int age, String lastUsername, Long lastId, int limit){
+        if(lastUsername == null || lastId == null){
+            return em.createQuery("select m from Member m where m.age = :age" +
+                            " order by m.username desc, m.id desc", Member.class)
+                    .setParameter("age", age)
+                    .setMaxResults(limit)
+                    .getResultList();
+        }
+        return em.createQuery("select m from Member m where m.age = :age" +
+                        " and (m.username < :username or (m.username = :username and m.id < :id))" +
+                        " order by m.username desc, m.id desc", Member.class)
+                .setParameter("age", age)
+                .setParameter("username", lastUsername)
+                .setParameter("id", lastId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
     public long getTotalCount(int age){
         // 전체 개수만 필요한 상황이니 성능을 위해 정렬조건은 제외시킴
         return em.createQuery("select count(m) from Member m where m.age = :age", Long.class)
@@ -65,8 +121,11 @@ public class MemberJpaRepository {
                 .getSingleResult();
     }
 
+    // 벌크 연산은 이벤트가 발생하지 않으므로 team_stats를 직접 갱신한다 (update 전에)
+    @Transactional
     public int updateAgeInBulk(int age){
-        return em.createQuery("update Member m set m.age = m.age + 1 where m.age >= :age")
+        teamStatsMaintenance.applyBulkAgeIncrement(age);
+        return em.createQuery("update versioned Member m set m.age = m.age + 1 where m.age >= :age")
                 .setParameter("age", age)
                 .executeUpdate();
     }
@@ -2,9 +2,12 @@ package com.study.datajpa.repository.jpa;
 
 import com.study.datajpa.entity.Member;
 import com.study.datajpa.entity.Team;
+import com.study.datajpa.support.BatchPersister;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -15,11 +18,20 @@ public class TeamJpaRepository {
     @PersistenceContext
     private EntityManager em;
 
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}")
+    private int batchSize;
+
     public Team save(Team team){
         em.persist(team);
         return team;
     }
 
+    // MemberJpaRepository.saveAllInBatch()와 동일. batchSize마다 flush + 그 batch만 detach
+    @Transactional
+    public int saveAllInBatch(Iterable<Team> teams){
+        return BatchPersister.persistAll(em, teams, batchSize);
+    }
+
     public void delete(Team team){
         em.remove(team);
     }
@@ -34,6 +46,11 @@ public class TeamJpaRepository {
     }
 
     public long count(){
-        return em.createQuery("select count(m) from Member m", Long.class).getSingleResult();
+        return em.createQuery("select count(t) from Team t", Long.class).getSingleResult();
+    }
+
+    // 팀에 소속된 member 수. member 테이블 전체를 세지 않고 team_stats(team 수만큼)에서 읽는다
+    public long countMembers(){
+        return em.createQuery("select coalesce(sum(s.memberCount), 0) from TeamStats s", Long.class).getSingleResult();
     }
 }
@@ -0,0 +1,115 @@
+package com.study.datajpa.search;
+
+import com.study.datajpa.dto.MemberDTO;
+import com.study.datajpa.entity.Member;
+import com.study.datajpa.repository.datajpa.MemberRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * username 접두사/부분 문자열 검색 (자동완성용)
+ * like '%q%'는 인덱스를 탈 수 없어서 키 입력마다 member 전체를 읽는다 => 메모리 인덱스(UsernameSearchIndex)에서 id를 찾고 DB는 id로만 조회한다
+ *
+ * - 시작할 때 member 테이블에서 인덱스를 만들고, 이후에는 member가 커밋될 때마다(post-commit 이벤트) 증분 갱신한다
+ *   롤백된 변경은 반영되지 않는다
+ * - JPQL/네이티브 벌크 연산은 이벤트가 발생하지 않는다. username을 바꾸거나 member를 지우는 벌크 연산을 추가하면 rebuild()를 호출할 것
+ *   (지워진 member는 검색 결과를 DB에서 조회할 때 빠지므로 결과가 틀리지는 않는다)
+ * - 인덱스는 서버마다 따로 가진다. 다른 서버에서 커밋한 변경은 반영되지 않으므로 여러 대로 운영하면 DB 전문 검색이나 별도 검색 엔진을 쓸 것
+ *
+ * 등록: HibernateEventListenerRegistrar
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MemberSearch implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    public static final int MAX_LIMIT = 50;
+
+    private final UsernameSearchIndex index = new UsernameSearchIndex();
+    private final MemberRepository memberRepository;
+    private final EntityManager em;
+
+    @Transactional(readOnly = true)
+    public List<MemberDTO> search(String query, int limit) {
+        List<Long> ids = index.search(query, Math.max(1, Math.min(limit, MAX_LIMIT)));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        // in 쿼리 한 번으로 조회하고, 순서는 인덱스의 순서(접두사 일치 -> 부분 일치)를 따른다
+        Map<Long, Member> members = memberRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Member::getId, Function.identity()));
+        return ids.stream()
+                .map(members::get)
+                .filter(Objects::nonNull)
+                .map(MemberDTO::new)
+                .toList();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        index.clear();
+        try (Stream<Object[]> rows = em.createQuery("select m.id, m.username from Member m", Object[].class).getResultStream()) {
+            rows.forEach(row -> index.put((Long) row[0], (String) row[1]));
+        }
+        log.info("username search index built: {} members", index.size());
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Member member) {
+            index.put(member.getId(), member.getUsername());
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Member member) {
+            index.put(member.getId(), member.getUsername()); // username이 그대로면 아무것도 하지 않는다
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Member) {
+            index.remove((Long) event.getId());
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    // Member만 커밋 후 처리를 등록한다 (다른 엔티티는 after completion 작업을 만들지 않음)
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return persister.getMappedClass() == Member.class;
+    }
+}
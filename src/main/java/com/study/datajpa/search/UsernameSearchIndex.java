@@ -0,0 +1,139 @@
+package com.study.datajpa.search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * member username의 메모리 검색 인덱스 (대소문자 구분 없음)
+ *
+ * - 접두사 검색: username 순으로 정렬된 skip list에서 범위 조회 => O(log n + 결과 수)
+ * - 부분 문자열 검색: 3글자(trigram) -> member id 역인덱스. 검색어의 trigram 중 가장 적은 후보만 실제 username과 비교한다
+ *   검색어가 3글자 미만이면 후보가 너무 많으므로 접두사 검색만 한다
+ *
+ * 조회는 락 없이 동시에 실행되고, 수정(put, remove)만 직렬화한다 (수정은 member가 커밋될 때만 일어난다)
+ * 수정 도중의 조회는 한 member가 잠깐 빠지거나 이전 username으로 보일 수 있다. 결과는 DB에서 다시 조회하므로 문제없다
+ */
+public class UsernameSearchIndex {
+
+    static final int GRAM = 3;
+    private static final char SEPARATOR = '\u0000'; // 같은 username의 member를 id로 구분. 어떤 문자보다도 앞에 정렬된다
+
+    private final NavigableMap<String, Long> byUsername = new ConcurrentSkipListMap<>(); // "username\0id" -> id
+    private final Map<Long, String> usernames = new ConcurrentHashMap<>(); // id -> username (소문자)
+    private final Map<String, Set<Long>> trigrams = new ConcurrentHashMap<>();
+
+    public synchronized void put(Long id, String username) {
+        String normalized = normalize(username);
+        String previous = usernames.get(id);
+        if (normalized.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            unindex(id, previous);
+        }
+        usernames.put(id, normalized);
+        byUsername.put(key(normalized, id), id);
+        for (String gram : grams(normalized)) {
+            trigrams.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    public synchronized void remove(Long id) {
+        String previous = usernames.remove(id);
+        if (previous != null) {
+            unindex(id, previous);
+        }
+    }
+
+    public synchronized void clear() {
+        byUsername.clear();
+        usernames.clear();
+        trigrams.clear();
+    }
+
+    public int size() {
+        return usernames.size();
+    }
+
+    /**
+     * 접두사가 일치하는 member를 username 순으로 먼저, 그 다음 부분 문자열이 일치하는 member를 username 순으로 반환한다 (최대 limit개)
+     */
+    public List<Long> search(String query, int limit) {
+        String q = normalize(query);
+        if (q.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Set<Long> result = new LinkedHashSet<>();
+        for (Long id : byUsername.subMap(q, true, q + Character.MAX_VALUE, false).values()) {
+            result.add(id);
+            if (result.size() == limit) {
+                return List.copyOf(result);
+            }
+        }
+        if (q.length() >= GRAM) {
+            List<Map.Entry<Long, String>> contains = new ArrayList<>();
+            for (Long id : candidates(q)) {
+                String username = usernames.get(id);
+                if (username != null && !username.startsWith(q) && username.contains(q)) {
+                    contains.add(Map.entry(id, username));
+                }
+            }
+            contains.sort(Map.Entry.<Long, String>comparingByValue().thenComparing(Map.Entry.comparingByKey()));
+            for (Map.Entry<Long, String> entry : contains) {
+                result.add(entry.getKey());
+                if (result.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return List.copyOf(result);
+    }
+
+    // 검색어의 trigram 중 posting이 가장 작은 것. 하나라도 없으면 일치하는 member가 없다
+    private Set<Long> candidates(String q) {
+        Set<Long> smallest = null;
+        for (String gram : grams(q)) {
+            Set<Long> posting = trigrams.get(gram);
+            if (posting == null) {
+                return Set.of();
+            }
+            if (smallest == null || posting.size() < smallest.size()) {
+                smallest = posting;
+            }
+        }
+        return smallest;
+    }
+
+    private void unindex(Long id, String username) {
+        byUsername.remove(key(username, id));
+        for (String gram : grams(username)) {
+            trigrams.computeIfPresent(gram, (g, posting) -> {
+                posting.remove(id);
+                return posting.isEmpty() ? null : posting;
+            });
+        }
+    }
+
+    static Set<String> grams(String normalized) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM <= normalized.length(); i++) {
+            grams.add(normalized.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private static String key(String normalized, Long id) {
+        return normalized + SEPARATOR + id;
+    }
+
+    static String normalize(String value) {
+        return value == null ? "" : value.strip().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,40 @@
+package com.study.datajpa.stats;
+
+/**
+ * 한 트랜잭션 동안 team 하나에 쌓인 변경량
+ * - addedMin/addedMax: 추가된 member 나이의 최솟값/최댓값
+ * - removedMin/removedMax: 빠진 member 나이의 최솟값/최댓값. 기존 최솟값/최댓값과 같으면 extrema를 다시 계산해야 한다
+ */
+class TeamStatsDelta {
+
+    long count;
+    long ageSum;
+    Integer addedMin;
+    Integer addedMax;
+    Integer removedMin;
+    Integer removedMax;
+
+    void add(int age) {
+        count++;
+        ageSum += age;
+        addedMin = addedMin == null ? age : Math.min(addedMin, age);
+        addedMax = addedMax == null ? age : Math.max(addedMax, age);
+    }
+
+    void remove(int age) {
+        count--;
+        ageSum -= age;
+        removedMin = removedMin == null ? age : Math.min(removedMin, age);
+        removedMax = removedMax == null ? age : Math.max(removedMax, age);
+    }
+
+    // 아직 반영되지 않은 변경이 있는 상태에서 "age >= threshold인 member의 age + 1" 벌크 연산이 실행된 경우
+    void shiftAgesFrom(int threshold) {
+        addedMin = shift(addedMin, threshold);
+        addedMax = shift(addedMax, threshold);
+    }
+
+    private static Integer shift(Integer age, int threshold) {
+        return age != null && age >= threshold ? age + 1 : age;
+    }
+}
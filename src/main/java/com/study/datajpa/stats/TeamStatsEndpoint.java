@@ -0,0 +1,29 @@
+package com.study.datajpa.stats;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * POST /actuator/teamstats                     : 전체 재계산
+ * POST /actuator/teamstats {"extremaOnly": true} : stale한 최솟값/최댓값만 재계산
+ */
+@Component
+@Endpoint(id = "teamstats")
+@RequiredArgsConstructor
+public class TeamStatsEndpoint {
+
+    private final TeamStatsMaintenance maintenance;
+
+    @WriteOperation
+    public Map<String, Object> rebuild(@Nullable Boolean extremaOnly) {
+        if (Boolean.TRUE.equals(extremaOnly)) {
+            return Map.of("reconciledTeams", maintenance.reconcile());
+        }
+        return Map.of("rebuiltTeams", maintenance.rebuild());
+    }
+}
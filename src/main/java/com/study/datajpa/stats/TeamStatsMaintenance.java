@@ -0,0 +1,137 @@
+package com.study.datajpa.stats;
+
+import com.study.datajpa.entity.TeamStats;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+/**
+ * 이벤트가 발생하지 않는 변경에 대한 team_stats 갱신과, 전체 재계산
+ *
+ * - applyBulkAgeIncrement(): "age >= :age인 member의 age + 1" 벌크 연산 직전에 같은 트랜잭션에서 호출한다.
+ *   대상 member 수만큼 ageSum을 늘리고, 최솟값/최댓값도 정확히 계산된다 (min >= age면 모든 member가 대상이므로 min + 1)
+ * - applyAgeIncrement(): id로 지정한 member의 age + 1. 최솟값/최댓값은 stale로 표시한다
+ * - initializeMissing(): 기동할 때 집계 행이 없는 team의 행을 만든다
+ * - reconcile(): 최솟값/최댓값이 stale인 team만 다시 계산한다 (주기적으로 실행)
+ * - rebuild(): member 테이블에서 전체를 다시 계산한다. 임의의 JPQL 벌크 연산(RangePartitionedBulkUpdater 등) 이후나 집계가 어긋났을 때 실행
+ *   재계산하는 동안 커밋된 다른 트랜잭션의 변경은 누락될 수 있으므로 트래픽이 적을 때 실행할 것 (/actuator/teamstats)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TeamStatsMaintenance {
+
+    private final EntityManager em;
+    private final TeamStatsTracker tracker;
+
+    /**
+     * member 벌크 update 전에 호출해야 한다 (update 후에는 조건에 맞는 member를 찾을 수 없음)
+     * 아직 flush되지 않은 member 변경도 벌크 연산 대상이 되도록 먼저 flush한다
+     */
+    @Transactional
+    public int applyBulkAgeIncrement(int age) {
+        em.flush();
+        tracker.shiftPendingAgesFrom(em.unwrap(SessionImplementor.class), age);
+        return em.createNativeQuery("""
+                        update team_stats s set
+                            age_sum = age_sum + (select count(*) from member m where m.team_id = s.team_id and m.age >= :age),
+                            min_age = case when min_age >= :age then min_age + 1 else min_age end,
+                            max_age = case when max_age >= :age then max_age + 1 else max_age end
+                        """)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(TeamStats.class) // 다른 엔티티의 2차 캐시는 비우지 않는다
+                .setParameter("age", age)
+                .executeUpdate();
+    }
+
+    /**
+     * id로 지정한 member의 age + 1 (MemberRepositoryCustomImpl.updateAgeInBulk(age, mode)) 직전/직후에 같은 트랜잭션에서 호출한다
+     * 대상 member는 잠겨 있으므로 team이 바뀌지 않는다. ageSum은 정확히 늘리고, 최솟값/최댓값은 stale로 표시해서 reconcile에 맡긴다
+     */
+    @Transactional
+    public int applyAgeIncrement(Collection<Long> memberIds) {
+        return em.createNativeQuery("""
+                        update team_stats s set
+                            age_sum = age_sum + (select count(*) from member m where m.team_id = s.team_id and m.member_id in (:ids)),
+                            extrema_stale = true
+                        where s.team_id in (select m.team_id from member m where m.member_id in (:ids))
+                        """)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(TeamStats.class)
+                .setParameter("ids", memberIds)
+                .executeUpdate();
+    }
+
+    @Transactional
+    @Scheduled(fixedDelayString = "${app.team-stats.reconcile-interval:10m}")
+    public int reconcile() {
+        int reconciled = em.createNativeQuery("""
+                        update team_stats s set
+                            min_age = (select min(m.age) from member m where m.team_id = s.team_id),
+                            max_age = (select max(m.age) from member m where m.team_id = s.team_id),
+                            extrema_stale = false
+                        where extrema_stale = true
+                        """)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(TeamStats.class)
+                .executeUpdate();
+        if (reconciled > 0) {
+            log.info("reconciled min/max age of {} teams", reconciled);
+        }
+        return reconciled;
+    }
+
+    /**
+     * 집계 행이 없는 team의 행을 만든다 (집계 도입 전 데이터, 서버 H2에 남아있던 데이터 등)
+     * 기동할 때 한 번 실행한다. 이후에 행이 없는 team은 TeamStatsTracker가 member 테이블에서 다시 계산해서 만든다
+     */
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public int initializeMissing() {
+        int created = em.createNativeQuery("""
+                        insert into team_stats (team_id, member_count, age_sum, min_age, max_age, extrema_stale)
+                        select t.team_id, count(m.member_id), coalesce(sum(m.age), 0), min(m.age), max(m.age), false
+                        from team t left join member m on m.team_id = t.team_id
+                        where not exists (select 1 from team_stats s where s.team_id = t.team_id)
+                        group by t.team_id
+                        """)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(TeamStats.class)
+                .executeUpdate();
+        if (created > 0) {
+            log.info("created missing team_stats rows for {} teams", created);
+        }
+        return created;
+    }
+
+    @Transactional
+    public int rebuild() {
+        em.createNativeQuery("delete from team_stats")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(TeamStats.class)
+                .executeUpdate();
+        int rebuilt = em.createNativeQuery("""
+                        insert into team_stats (team_id, member_count, age_sum, min_age, max_age, extrema_stale)
+                        select t.team_id, count(m.member_id), coalesce(sum(m.age), 0), min(m.age), max(m.age), false
+                        from team t left join member m on m.team_id = t.team_id
+                        group by t.team_id
+                        """)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(TeamStats.class)
+                .executeUpdate();
+        log.info("rebuilt team_stats for {} teams", rebuilt);
+        return rebuilt;
+    }
+}
@@ -0,0 +1,209 @@
+package com.study.datajpa.stats;
+
+import com.study.datajpa.entity.Member;
+import com.study.datajpa.entity.Team;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Member/Team의 insert, update, delete 이벤트로 team_stats를 증분 갱신한다
+ *
+ * 1. 이벤트마다 바로 SQL을 실행하지 않고, 세션(트랜잭션)별로 team당 변경량(TeamStatsDelta)을 모은다
+ * 2. 커밋 직전(BeforeTransactionCompletionProcess)에 team id 순서로 한 번씩 반영한다 (select for update -> update/insert)
+ *    같은 트랜잭션에서 커밋되므로 member 변경과 집계가 어긋나지 않는다. 롤백되면 버린다
+ *
+ * JPQL/네이티브 벌크 연산, JDBC 직접 수정은 이벤트가 발생하지 않는다 => TeamStatsMaintenance 참고
+ */
+@Slf4j
+@Component
+public class TeamStatsTracker implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final Map<SharedSessionContractImplementor, Map<Long, TeamStatsDelta>> pending = new ConcurrentHashMap<>();
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Member member) {
+            if (member.getTeam() != null) {
+                deltaOf(event.getSession(), member.getTeam().getId()).add(member.getAge());
+            }
+        } else if (event.getEntity() instanceof Team team) {
+            deltaOf(event.getSession(), team.getId()); // member가 없는 team도 집계 행을 만든다
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Member member)) {
+            return;
+        }
+        Object[] oldState = event.getOldState();
+        if (oldState == null) {
+            // 이전 상태를 모르면 증분 갱신할 수 없다. 다음 rebuild에서 바로잡힌다
+            log.warn("no previous state for member {}. team_stats may drift until rebuild", member.getId());
+            return;
+        }
+        EntityPersister persister = event.getPersister();
+        Team oldTeam = (Team) oldState[persister.getPropertyIndex("team")];
+        int oldAge = (Integer) oldState[persister.getPropertyIndex("age")];
+        Long oldTeamId = oldTeam == null ? null : oldTeam.getId();
+        Long newTeamId = member.getTeam() == null ? null : member.getTeam().getId();
+        if (Objects.equals(oldTeamId, newTeamId) && oldAge == member.getAge()) {
+            return;
+        }
+        if (oldTeamId != null) {
+            deltaOf(event.getSession(), oldTeamId).remove(oldAge);
+        }
+        if (newTeamId != null) {
+            deltaOf(event.getSession(), newTeamId).add(member.getAge());
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Member) {
+            Object[] deletedState = event.getDeletedState();
+            EntityPersister persister = event.getPersister();
+            Team team = (Team) deletedState[persister.getPropertyIndex("team")];
+            if (team != null) {
+                deltaOf(event.getSession(), team.getId()).remove((Integer) deletedState[persister.getPropertyIndex("age")]);
+            }
+        } else if (event.getEntity() instanceof Team team) {
+            pendingOf(event.getSession()).remove(team.getId());
+            event.getSession().doWork(connection -> {
+                try (PreparedStatement delete = connection.prepareStatement("delete from team_stats where team_id = ?")) {
+                    delete.setLong(1, team.getId());
+                    delete.executeUpdate();
+                }
+            });
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    // 벌크 연산(TeamStatsMaintenance.applyBulkAgeIncrement)이 아직 반영되지 않은 변경량에도 적용되도록
+    void shiftPendingAgesFrom(SharedSessionContractImplementor session, int threshold) {
+        Map<Long, TeamStatsDelta> deltas = pending.get(session);
+        if (deltas != null) {
+            deltas.values().forEach(delta -> delta.shiftAgesFrom(threshold));
+        }
+    }
+
+    private TeamStatsDelta deltaOf(EventSource session, Long teamId) {
+        return pendingOf(session).computeIfAbsent(teamId, id -> new TeamStatsDelta());
+    }
+
+    private Map<Long, TeamStatsDelta> pendingOf(EventSource session) {
+        return pending.computeIfAbsent(session, s -> {
+            session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) this::apply);
+            session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, completed) -> pending.remove(completed));
+            return new TreeMap<>(); // team id 순서로 반영해서 데드락 방지
+        });
+    }
+
+    private void apply(SessionImplementor session) {
+        Map<Long, TeamStatsDelta> deltas = pending.remove(session);
+        if (deltas == null || deltas.isEmpty()) {
+            return;
+        }
+        session.doWork(connection -> {
+            for (Map.Entry<Long, TeamStatsDelta> entry : deltas.entrySet()) {
+                apply(connection, entry.getKey(), entry.getValue());
+            }
+        });
+    }
+
+    private static void apply(Connection connection, long teamId, TeamStatsDelta delta) throws SQLException {
+        try (PreparedStatement select = connection.prepareStatement(
+                "select member_count, age_sum, min_age, max_age, extrema_stale from team_stats where team_id = ? for update")) {
+            select.setLong(1, teamId);
+            try (ResultSet row = select.executeQuery()) {
+                if (!row.next()) {
+                    recompute(connection, teamId);
+                    return;
+                }
+                long count = row.getLong(1) + delta.count;
+                long ageSum = row.getLong(2) + delta.ageSum;
+                Integer minAge = row.getObject(3, Integer.class);
+                Integer maxAge = row.getObject(4, Integer.class);
+                boolean stale = row.getBoolean(5)
+                        || (delta.removedMin != null && minAge != null && delta.removedMin <= minAge)
+                        || (delta.removedMax != null && maxAge != null && delta.removedMax >= maxAge);
+                if (delta.addedMin != null) {
+                    minAge = minAge == null ? delta.addedMin : Math.min(minAge, delta.addedMin);
+                    maxAge = maxAge == null ? delta.addedMax : Math.max(maxAge, delta.addedMax);
+                }
+                if (count <= 0) {
+                    count = 0;
+                    ageSum = 0;
+                    minAge = null;
+                    maxAge = null;
+                    stale = false;
+                }
+                update(connection, teamId, count, ageSum, minAge, maxAge, stale);
+            }
+        }
+    }
+
+    /**
+     * 집계 행이 없는 team (TeamStatsMaintenance.initializeMissing() 이후에 JPA를 거치지 않고 만든 team 등)
+     * 변경량만으로는 전체 값을 알 수 없으므로 member 테이블에서 다시 계산한다. 이 트랜잭션의 변경은 이미 flush되어 있으므로 변경량은 버린다
+     * 같은 team을 동시에 처음 반영하는 트랜잭션이 있어도 PK 충돌이 나지 않도록 merge(upsert)로 쓴다
+     */
+    private static void recompute(Connection connection, long teamId) throws SQLException {
+        try (PreparedStatement merge = connection.prepareStatement("""
+                merge into team_stats (team_id, member_count, age_sum, min_age, max_age, extrema_stale) key (team_id)
+                select ?, count(*), coalesce(sum(age), 0), min(age), max(age), false from member where team_id = ?
+                """)) {
+            merge.setLong(1, teamId);
+            merge.setLong(2, teamId);
+            merge.executeUpdate();
+        }
+    }
+
+    private static void update(Connection connection, long teamId, long count, long ageSum,
+                               Integer minAge, Integer maxAge, boolean stale) throws SQLException {
+        try (PreparedStatement update = connection.prepareStatement(
+                "update team_stats set member_count = ?, age_sum = ?, min_age = ?, max_age = ?, extrema_stale = ? where team_id = ?")) {
+            update.setLong(1, count);
+            update.setLong(2, ageSum);
+            setInteger(update, 3, minAge);
+            setInteger(update, 4, maxAge);
+            update.setBoolean(5, stale);
+            update.setLong(6, teamId);
+            update.executeUpdate();
+        }
+    }
+
+    private static void setInteger(PreparedStatement statement, int index, Integer value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.INTEGER);
+        } else {
+            statement.setInt(index, value);
+        }
+    }
+}
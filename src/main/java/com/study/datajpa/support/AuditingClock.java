@@ -0,0 +1,24 @@
+package com.study.datajpa.support;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+
+/**
+ * auditing 시간(생성일/수정일). Spring Data Auditing(DateTimeProvider)과 JpaBaseEntityListener가 같이 사용한다 (AuditingConfig)
+ *
+ * 현재 스레드에서 진행 중인 트랜잭션이 있으면 그 세션의 AuditingFlushInterceptor가 가진 flush 시간을 사용하고,
+ * 없으면(트랜잭션 밖) 매번 clock에서 읽는다. 엔티티마다 호출되므로 ThreadLocal 조회 한 번으로 끝낸다. 시간을 고정하려면 Clock Bean을 바꾼다
+ */
+public class AuditingClock {
+
+    private final Clock clock;
+
+    public AuditingClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    public LocalDateTime now() {
+        AuditingFlushInterceptor interceptor = AuditingFlushInterceptor.current();
+        return interceptor != null ? interceptor.flushTimestamp() : LocalDateTime.now(clock);
+    }
+}
@@ -0,0 +1,55 @@
+package com.study.datajpa.support;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Auditing(생성자/수정자, 생성일/수정일) 값을 엔티티마다 새로 만들지 않고 재사용한다
+ *
+ * - 시간: 세션의 flush 단위로 한 번만 clock에서 읽는다 (AuditingClock, AuditingFlushInterceptor)
+ * - 작업자: 트랜잭션당 한 번만 resolve한다
+ */
+public final class AuditingContext {
+
+    private static final Object AUDITOR_KEY = new Object();
+
+    private AuditingContext() {
+    }
+
+    /**
+     * 트랜잭션 안에서는 처음 resolve한 작업자를 트랜잭션 리소스로 바인딩해두고 재사용한다 (트랜잭션이 끝나면 해제)
+     * 트랜잭션 밖에서는 매번 resolver를 호출한다
+     */
+    public static String currentAuditor(Supplier<String> resolver) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return resolver.get();
+        }
+        String auditor = (String) TransactionSynchronizationManager.getResource(AUDITOR_KEY);
+        if (auditor == null) {
+            auditor = resolver.get();
+            TransactionSynchronizationManager.bindResource(AUDITOR_KEY, auditor);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(AUDITOR_KEY);
+                }
+            });
+        }
+        return auditor;
+    }
+
+    /**
+     * UUID.randomUUID()는 SecureRandom을 사용하므로 느리고 스레드 간 경합이 있다.
+     * 식별용이지 보안용 값이 아니므로 ThreadLocalRandom으로 같은 형식(version 4)의 UUID를 만든다
+     */
+    public static UUID randomUuid() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long mostSigBits = (random.nextLong() & ~0xF000L) | 0x4000L; // version 4
+        long leastSigBits = (random.nextLong() & 0x3FFF_FFFF_FFFF_FFFFL) | 0x8000_0000_0000_0000L; // IETF variant
+        return new UUID(mostSigBits, leastSigBits);
+    }
+}
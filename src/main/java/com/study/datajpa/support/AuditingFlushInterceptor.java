@@ -0,0 +1,66 @@
+package com.study.datajpa.support;
+
+import org.hibernate.Interceptor;
+import org.hibernate.Transaction;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+
+/**
+ * 세션마다 하나씩 만들어지는 interceptor (AuditingConfig, session_scoped_interceptor). 세션의 auditing 시간을 갖고 있다
+ *
+ * - 같은 flush(= JDBC batch)에 포함된 엔티티는 모두 같은 시간을 갖고, flush가 끝나거나 트랜잭션이 끝나면 다음에 clock에서 다시 읽는다
+ * - REQUIRES_NEW로 열린 안쪽 트랜잭션은 다른 세션이므로 바깥 트랜잭션의 flush 시간과 섞이지 않는다
+ * - 트랜잭션이 진행되는 동안 현재 스레드에 자신을 등록한다(current()). AuditingClock은 호출마다 EntityManager를 찾지 않고 여기서 꺼낸다
+ * 세션은 한 스레드에서만 사용하므로 동기화하지 않는다
+ */
+public class AuditingFlushInterceptor implements Interceptor {
+
+    private static final ThreadLocal<AuditingFlushInterceptor> CURRENT = new ThreadLocal<>();
+
+    private final Clock clock;
+    private LocalDateTime flushTimestamp;
+    private AuditingFlushInterceptor previous; // REQUIRES_NEW로 잠시 가려진 바깥 트랜잭션의 interceptor
+
+    public AuditingFlushInterceptor(Clock clock) {
+        this.clock = clock;
+    }
+
+    // 현재 스레드에서 진행 중인 트랜잭션의 interceptor. 트랜잭션 밖이면 null
+    public static AuditingFlushInterceptor current() {
+        return CURRENT.get();
+    }
+
+    public LocalDateTime flushTimestamp() {
+        if (flushTimestamp == null) {
+            flushTimestamp = LocalDateTime.now(clock);
+        }
+        return flushTimestamp;
+    }
+
+    @Override
+    public void postFlush(Iterator<Object> entities) {
+        flushTimestamp = null;
+    }
+
+    @Override
+    public void afterTransactionBegin(Transaction tx) {
+        previous = CURRENT.get();
+        CURRENT.set(this);
+    }
+
+    // flush 없이 끝난 트랜잭션(rollback 등)의 시간이 같은 세션의 다음 트랜잭션으로 넘어가지 않도록
+    @Override
+    public void afterTransactionCompletion(Transaction tx) {
+        flushTimestamp = null;
+        if (CURRENT.get() == this) {
+            if (previous == null) {
+                CURRENT.remove(); // 스레드 풀 스레드에 남지 않도록
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+        previous = null;
+    }
+}
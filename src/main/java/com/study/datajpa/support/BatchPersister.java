@@ -0,0 +1,43 @@
+package com.study.datajpa.support;
+
+import jakarta.persistence.EntityManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 대량 insert. batchSize(= hibernate.jdbc.batch_size)개 마다 flush()로 JDBC batch insert를 보내고 방금 보낸 batch만 detach한다
+ * 영속성 컨텍스트에 남는 엔티티는 최대 batchSize개이므로 힙 사용량이 일정하다.
+ *
+ * clear()를 쓰지 않으므로 호출한 쪽이 같은 트랜잭션에서 들고 있던 다른 엔티티는 영속 상태 그대로이다
+ * (단, flush()는 영속성 컨텍스트 전체에 대해 하므로 그 엔티티들의 변경도 같이 DB에 반영된다)
+ * 넘겨준 엔티티는 호출이 끝나면 전부 준영속 상태이다. 이미 영속 상태였던 엔티티를 넘겨도 준영속이 된다
+ *
+ * 사용: MemberJpaRepository, TeamJpaRepository, MemberRepositoryCustomImpl의 saveAllInBatch()
+ */
+public final class BatchPersister {
+
+    private BatchPersister() {
+    }
+
+    public static <T> int persistAll(EntityManager em, Iterable<T> entities, int batchSize) {
+        List<T> batch = new ArrayList<>(batchSize);
+        int count = 0;
+        for (T entity : entities) {
+            em.persist(entity);
+            batch.add(entity);
+            count++;
+            if (batch.size() == batchSize) {
+                flushAndDetach(em, batch);
+            }
+        }
+        flushAndDetach(em, batch);
+        return count;
+    }
+
+    private static <T> void flushAndDetach(EntityManager em, List<T> batch) {
+        em.flush();
+        batch.forEach(em::detach);
+        batch.clear();
+    }
+}
@@ -0,0 +1,98 @@
+package com.study.datajpa.support;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * DB를 사용하는 요청의 동시 실행 수를 커넥션 풀 크기로 제한한다
+ *
+ * virtual thread에서는 요청마다 스레드가 생기므로, 제한이 없으면 수십만 개의 스레드가 Hikari의 커넥션 대기열에 쌓인다.
+ * (대기 중인 스레드가 전부 connectionTimeout을 기다렸다가 실패하고, 그동안 메모리와 스케줄링 비용만 늘어난다)
+ * 대신 공정한(fair) 세마포어로 앞단에서 줄을 세우고, acquireTimeout 안에 차례가 오지 않으면 바로 503으로 응답한다.
+ *
+ * open-in-view가 켜져 있으면 커넥션을 한 번 잡은 요청은 끝날 때까지 커넥션을 들고 있으므로, 퍼밋도 요청이 끝날 때 반납한다.
+ * 비동기 요청(StreamingResponseBody)은 비동기 처리가 끝날 때 반납한다
+ */
+@Slf4j
+public class DbConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final long acquireTimeoutMillis;
+
+    public DbConcurrencyLimitFilter(int maxConcurrency, Duration acquireTimeout) {
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.acquireTimeoutMillis = acquireTimeout.toMillis();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            log.debug("DB concurrency limit reached. rejecting {}", request.getRequestURI());
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "too many concurrent requests");
+            return;
+        }
+
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        };
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingAsyncListener(release));
+            } else {
+                release.run();
+            }
+        }
+    }
+
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    private record ReleasingAsyncListener(Runnable release) implements AsyncListener {
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this); // 비동기가 다시 시작되면 리스너가 지워지므로 다시 등록
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.study.datajpa.support;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 서로 독립적인 비동기 조회 여러 개를 동시에 실행하고 모두 끝날 때까지 기다린다
+ * 응답 시간은 각 조회 시간의 합이 아니라 가장 느린 조회의 시간이 된다
+ *
+ * - 하나라도 실패하면 나머지를 기다리지 않고 바로 실패한다 (나머지는 cancel. 이미 제출된 쿼리는 그대로 실행된다)
+ * - timeout 안에 끝나지 않으면 전부 cancel하고 실패한다 (CompletionException, cause는 TimeoutException)
+ * 결과는 각 future.join()으로 꺼낸다 (awaitAll 이후에는 블로킹되지 않음)
+ *
+ * ex) var member = memberRepository.findAsyncByUsername(name);
+ *     var page = memberRepository.findAsyncPageByAge(age, pageable);
+ *     FanOut.awaitAll(Duration.ofSeconds(3), member, page);
+ */
+public final class FanOut {
+
+    private FanOut() {
+    }
+
+    public static void awaitAll(Duration timeout, CompletableFuture<?>... futures) {
+        CompletableFuture<Void> all = CompletableFuture.allOf(futures);
+        for (CompletableFuture<?> future : futures) {
+            future.whenComplete((result, e) -> {
+                if (e != null) {
+                    all.completeExceptionally(e);
+                }
+            });
+        }
+
+        try {
+            all.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            cancelAll(futures);
+            throw e.getCause() instanceof CompletionException completion ? completion : new CompletionException(e.getCause());
+        } catch (TimeoutException e) {
+            cancelAll(futures);
+            throw new CompletionException("fan-out did not complete within " + timeout, e);
+        } catch (InterruptedException e) {
+            cancelAll(futures);
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+    }
+
+    // 기다리는 쪽이 더 기다리지 않도록 future만 취소 상태로 완료한다
+    // CompletableFuture.cancel()은 executor와 연결되어 있지 않으므로 실행 중인 쿼리를 멈추지도, 큐에서 기다리는 작업을 빼지도 않는다
+    // => 큐에 있던 작업도 나중에 실행되고(커넥션을 사용함) 그 결과만 버려진다
+    private static void cancelAll(CompletableFuture<?>... futures) {
+        for (CompletableFuture<?> future : futures) {
+            future.cancel(false);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.study.datajpa.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * 낙관적 락 충돌(@Version) 시 트랜잭션 전체를 다시 실행한다
+ *
+ * - 시도마다 새 트랜잭션(REQUIRES_NEW)에서 실행한다. 충돌한 트랜잭션은 롤백되고, 다음 시도는 최신 데이터를 다시 읽는다
+ *   (바깥 트랜잭션 안에서 재시도하면 영속성 컨텍스트에 남은 예전 version 때문에 계속 실패한다)
+ * - 재시도 간격은 지수 백오프 + full jitter: [0, min(maxBackoff, initialBackoff * 2^시도)) 중 랜덤
+ *   충돌한 트랜잭션들이 같은 간격으로 동시에 재시도해서 다시 충돌하는 것을 막는다
+ * - maxAttempts번 모두 실패하면 마지막 예외를 그대로 던진다
+ *
+ * ex) optimisticLockRetry.execute(() -> {
+ *         Member member = memberRepository.findById(id).orElseThrow();
+ *         member.setAge(member.getAge() + 1);
+ *         return member.getAge();
+ *     });
+ */
+@Slf4j
+@Component
+public class OptimisticLockRetry {
+
+    private final TransactionTemplate newTransaction;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+
+    public OptimisticLockRetry(PlatformTransactionManager transactionManager,
+                               @Value("${app.optimistic-lock-retry.max-attempts:5}") int maxAttempts,
+                               @Value("${app.optimistic-lock-retry.initial-backoff:10ms}") Duration initialBackoff,
+                               @Value("${app.optimistic-lock-retry.max-backoff:500ms}") Duration maxBackoff) {
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoff.toMillis();
+        this.maxBackoffMillis = maxBackoff.toMillis();
+    }
+
+    public <T> T execute(Supplier<T> work) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return newTransaction.execute(status -> work.get());
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                log.debug("optimistic lock conflict. retrying ({}/{})", attempt, maxAttempts);
+                backoff(attempt);
+            }
+        }
+    }
+
+    public void executeWithoutResult(Runnable work) {
+        execute(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    private void backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting to retry", e);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.study.datajpa.support;
+
+import com.study.datajpa.entity.Member;
+import com.study.datajpa.repository.datajpa.MemberRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+
+/**
+ * 샘플 데이터(userA) 입력
+ *
+ * 원래는 MemberController의 @PostConstruct에서 했는데, 그러면 Bean을 만드는 도중에 DB에 쓰게 된다
+ * (EntityManagerFactory, 리포지토리를 그 자리에서 초기화해야 하고, 이벤트 리스너가 등록되기 전일 수도 있다)
+ * => 애플리케이션이 준비된 뒤(ApplicationReadyEvent)에 실행한다. app.sample-data.async=true면 백그라운드에서 실행해서 기동을 기다리게 하지 않는다
+ */
+@Slf4j
+@Component
+public class SampleDataInitializer {
+
+    private final MemberRepository memberRepository;
+    private final TaskExecutor taskExecutor;
+    private final boolean async;
+
+    public SampleDataInitializer(MemberRepository memberRepository,
+                                 @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) TaskExecutor taskExecutor,
+                                 @Value("${app.sample-data.async:false}") boolean async) {
+        this.memberRepository = memberRepository;
+        this.taskExecutor = taskExecutor;
+        this.async = async;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void initialize() {
+        if (async) {
+            taskExecutor.execute(this::insert);
+        } else {
+            insert();
+        }
+    }
+
+    private void insert() {
+        memberRepository.save(new Member("userA"));
+        log.debug("sample data inserted");
+    }
+}
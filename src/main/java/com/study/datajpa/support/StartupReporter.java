@@ -0,0 +1,40 @@
+package com.study.datajpa.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * 기동 시간을 남긴다. JVM 기동(클래스 로딩 등)까지 포함한 시간은 JVM uptime으로 본다
+ *
+ * app.startup.exit-after-ready=true: 준비되자마자 종료한다.
+ * AppCDS 아카이브를 만들 때(./gradlew cdsArchive) 기동하면서 로딩한 클래스를 종료 시점에 덤프하기 위해 사용한다
+ */
+@Slf4j
+@Component
+public class StartupReporter {
+
+    private final boolean exitAfterReady;
+
+    public StartupReporter(@Value("${app.startup.exit-after-ready:false}") boolean exitAfterReady) {
+        this.exitAfterReady = exitAfterReady;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE) // 다른 ApplicationReadyEvent 리스너(SampleDataInitializer 등)가 끝난 뒤
+    public void report(ApplicationReadyEvent event) {
+        log.info("ready in {} ms (JVM uptime {} ms)",
+                event.getTimeTaken() == null ? "?" : event.getTimeTaken().toMillis(),
+                ManagementFactory.getRuntimeMXBean().getUptime());
+        if (exitAfterReady) {
+            System.exit(SpringApplication.exit(event.getApplicationContext()));
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.study.datajpa.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Tomcat 요청 처리를 virtual thread에서 실행한다 (Java 21, application-virtual-threads.yml)
+ *
+ * 요청 대부분이 JDBC 응답을 기다리며 블로킹되므로 platform thread(기본 최대 200개)로는 CPU를 다 쓰기 전에 스레드가 먼저 바닥난다.
+ * virtual thread는 블로킹되면 carrier thread를 내려놓으므로 동시 요청 수가 스레드 수에 묶이지 않는다.
+ *
+ * 주의: 동시에 DB를 쓸 수 있는 수는 여전히 커넥션 풀 크기까지다. 그 이상은 DbConcurrencyLimitFilter가 앞단에서 막는다
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    // StreamingResponseBody(/members/export) 같은 MVC 비동기 처리도 virtual thread에서 실행
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(Executors.newVirtualThreadPerTaskExecutor());
+    }
+}
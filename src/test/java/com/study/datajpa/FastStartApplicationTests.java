@@ -0,0 +1,45 @@
+package com.study.datajpa;
+
+import com.study.datajpa.config.HibernateEventListenerRegistrar;
+import com.study.datajpa.entity.Member;
+import com.study.datajpa.repository.datajpa.MemberRepository;
+import com.study.datajpa.stats.TeamStatsMaintenance;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles({"embedded", "faststart"})
+class FastStartApplicationTests {
+
+    @Autowired
+    ConfigurableApplicationContext context;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Test
+    @DisplayName("lazy init이어도 이벤트 리스너 등록, 스케줄링 Bean은 기동할 때 만들어지고 샘플 데이터는 백그라운드에서 들어간다")
+    void 테스트_faststart() throws InterruptedException {
+        List<String> singletons = List.of(context.getBeanFactory().getSingletonNames());
+        assertThat(singletons).contains(
+                context.getBeanNamesForType(HibernateEventListenerRegistrar.class)[0],
+                context.getBeanNamesForType(TeamStatsMaintenance.class)[0]);
+
+        List<Member> sample = List.of();
+        for (int i = 0; i < 50 && sample.isEmpty(); i++) {
+            sample = memberRepository.findMemberListByUsername("userA");
+            if (sample.isEmpty()) {
+                Thread.sleep(100);
+            }
+        }
+        assertThat(sample).hasSize(1);
+    }
+}
@@ -0,0 +1,82 @@
+package com.study.datajpa.batch;
+
+import com.study.datajpa.entity.Member;
+import com.study.datajpa.repository.datajpa.MemberRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class MemberAgeWriteBehindBufferTest {
+
+    @Autowired
+    MemberAgeWriteBehindBuffer buffer;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Test
+    @DisplayName("write-behind: 동시에 증가시킨 age를 flush에서 한 번에 반영")
+    void 테스트_write_behind() throws Exception {
+        // given
+        Member member = memberRepository.save(new Member("writeBehind", 0));
+        Long id = member.getId();
+
+        try {
+            // when
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(CompletableFuture.runAsync(() -> {
+                    for (int j = 0; j < 1000; j++) {
+                        buffer.increment(id);
+                    }
+                }, executor));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get();
+            executor.shutdown();
+            buffer.flush();
+
+            // then
+            assertThat(buffer.pendingDelta(id)).isZero();
+            assertThat(memberRepository.findById(id).orElseThrow().getAge()).isEqualTo(4000);
+        } finally {
+            // 커밋된 데이터라 롤백되지 않으므로 직접 지운다
+            memberRepository.deleteById(id);
+        }
+    }
+
+    @Test
+    @DisplayName("write-behind: 한동안 증가가 없어 지운 카운터에 다시 증가해도 반영된다")
+    void 테스트_write_behind_evict() {
+        // given
+        Long id = memberRepository.save(new Member("writeBehindEvict", 0)).getId();
+
+        try {
+            buffer.increment(id);
+            buffer.flush();
+            for (int i = 0; i < 3; i++) {
+                buffer.flush(); // 증가가 없는 flush가 이어지면 카운터를 지운다
+            }
+
+            // when
+            buffer.increment(id);
+            buffer.flush();
+
+            // then
+            assertThat(buffer.pendingDelta(id)).isZero();
+            assertThat(memberRepository.findById(id).orElseThrow().getAge()).isEqualTo(2);
+        } finally {
+            memberRepository.deleteById(id);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.study.datajpa.batch;
+
+import com.study.datajpa.batch.RangePartitionedBulkUpdater.Checkpoint;
+import com.study.datajpa.batch.RangePartitionedBulkUpdater.Options;
+import com.study.datajpa.batch.RangePartitionedBulkUpdater.Progress;
+import com.study.datajpa.batch.RangePartitionedBulkUpdater.Result;
+import com.study.datajpa.entity.Member;
+import com.study.datajpa.repository.datajpa.MemberRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// chunk마다 별도 트랜잭션으로 커밋되므로 @Transactional을 붙이지 않는다
+@SpringBootTest
+class RangePartitionedBulkUpdaterTest {
+
+    // Member는 @Version이 있으므로 update versioned (RangePartitionedBulkUpdater 참고)
+    private static final String UPDATE = "update versioned Member m set m.age = m.age + 1" +
+            " where m.username like :prefix and m.id between :fromId and :toId";
+
+    @Autowired
+    RangePartitionedBulkUpdater bulkUpdater;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Test
+    @DisplayName("id 범위로 나눠서 병렬로 update")
+    void 테스트_range_update(){
+        // given
+        List<Member> members = members("range-", 250);
+        memberRepository.saveAllInBatch(members);
+        List<Progress> progresses = new CopyOnWriteArrayList<>();
+
+        try {
+            // when
+            Result result = bulkUpdater.execute("Member", UPDATE, Map.of("prefix", "range-%"),
+                    Options.of(40, 4), progresses::add);
+
+            // then
+            assertThat(result.isCompleted()).isTrue();
+            assertThat(result.updatedRows()).isEqualTo(250);
+            assertThat(progresses).hasSize((int) result.totalChunks());
+            assertThat(progresses).allMatch(progress -> progress.updatedRows() <= 40); // chunk당 최대 행 수
+            assertThat(memberRepository.findByNames(names("range-", 250)))
+                    .allMatch(member -> member.getAge() == 31 && member.getVersion() == 1);
+        } finally {
+            deleteAll(members);
+        }
+    }
+
+    @Test
+    @DisplayName("checkpoint에서 재시작하면 완료된 chunk는 다시 실행하지 않는다")
+    void 테스트_range_update_resume(){
+        // given: 모든 chunk가 이미 끝났다고 기록된 checkpoint
+        List<Member> members = members("resume-", 100);
+        memberRepository.saveAllInBatch(members);
+        try {
+            Checkpoint finished = new Checkpoint(40, Long.MAX_VALUE - 40, Set.of());
+
+            // when
+            Result result = bulkUpdater.execute("Member", UPDATE, Map.of("prefix", "resume-%"),
+                    Options.of(40, 2).resumeFrom(finished), RangePartitionedBulkUpdater.ProgressListener.NONE);
+
+            // then
+            assertThat(result.totalChunks()).isZero();
+            assertThat(memberRepository.findByNames(names("resume-", 100))).allMatch(member -> member.getAge() == 30);
+
+            // when: checkpoint 없이 실행한 결과의 checkpoint로 다시 실행
+            Result first = bulkUpdater.execute("Member", UPDATE, Map.of("prefix", "resume-%"),
+                    Options.of(40, 2), RangePartitionedBulkUpdater.ProgressListener.NONE);
+            Result resumed = bulkUpdater.execute("Member", UPDATE, Map.of("prefix", "resume-%"),
+                    Options.of(40, 2).resumeFrom(first.checkpoint()), RangePartitionedBulkUpdater.ProgressListener.NONE);
+
+            // then
+            assertThat(resumed.updatedRows()).isZero();
+            assertThat(memberRepository.findByNames(names("resume-", 100))).allMatch(member -> member.getAge() == 31);
+        } finally {
+            deleteAll(members);
+        }
+    }
+
+    // 커밋된 데이터이므로 같은 DB를 쓰는 다른 테스트(count, 벌크 update)에 영향을 주지 않도록 지운다
+    private void deleteAll(List<Member> members) {
+        memberRepository.deleteAllByIdInBatch(members.stream().map(Member::getId).toList());
+    }
+
+    private static List<Member> members(String prefix, int count) {
+        return IntStream.range(0, count).mapToObj(i -> new Member(prefix + i, 30)).toList();
+    }
+
+    private static List<String> names(String prefix, int count) {
+        return IntStream.range(0, count).mapToObj(i -> prefix + i).toList();
+    }
+}
@@ -0,0 +1,31 @@
+package com.study.datajpa.config;
+
+import com.study.datajpa.dto.MemberDTO;
+import com.study.datajpa.dto.PMemberDTO;
+import com.study.datajpa.entity.BaseEntity;
+import com.study.datajpa.entity.Member;
+import com.study.datajpa.repository.datajpaImpl.MemberRepositoryCustomImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NativeHintsConfigTest {
+
+    @Test
+    @DisplayName("native image용 리플렉션 힌트: 엔티티 필드, JPQL 생성자, 커스텀 리포지토리, 응답 DTO")
+    void 테스트_runtime_hints() throws NoSuchMethodException {
+        RuntimeHints hints = new RuntimeHints();
+        new NativeHintsConfig.DataJpaRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        assertThat(RuntimeHintsPredicates.reflection().onField(Member.class, "username")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onField(BaseEntity.class, "createdBy")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onConstructor(Member.class.getDeclaredConstructor())).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection()
+                .onConstructor(PMemberDTO.class.getConstructor(Long.class, String.class, String.class))).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(MemberRepositoryCustomImpl.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(MemberDTO.class, "getUsername")).accepts(hints);
+    }
+}
@@ -0,0 +1,102 @@
+package com.study.datajpa.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.study.datajpa.entity.Member;
+import com.study.datajpa.entity.Team;
+import com.study.datajpa.repository.datajpa.MemberRepository;
+import com.study.datajpa.repository.datajpa.TeamRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// export는 별도의 스레드에서 자기 트랜잭션으로 읽으므로 데이터를 직접 커밋하고 끝나면 정리한다 (@Transactional을 붙이지 않음)
+@SpringBootTest
+@AutoConfigureMockMvc
+class MemberControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("/members/export: 회원마다 JSON 한 줄(NDJSON), withTeam=true면 team이 있는 회원만 팀 이름과 함께")
+    void 테스트_export() throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Long[] ids = tx.execute(status -> {
+            Team team = teamRepository.save(new Team("exportTeam"));
+            Member member1 = memberRepository.save(new Member("export1", 31, team));
+            Member member2 = memberRepository.save(new Member("export2", 32));
+            return new Long[]{team.getId(), member1.getId(), member2.getId()};
+        });
+
+        try {
+            List<JsonNode> members = export("/members/export");
+            assertThat(members).anySatisfy(member -> {
+                assertThat(member.get("id").asLong()).isEqualTo(ids[1]);
+                assertThat(member.get("username").asText()).isEqualTo("export1");
+                assertThat(member.get("age").asInt()).isEqualTo(31);
+            });
+            assertThat(members).extracting(member -> member.get("username").asText()).contains("export2");
+
+            List<JsonNode> withTeam = export("/members/export?withTeam=true");
+            assertThat(withTeam).anySatisfy(member -> {
+                assertThat(member.get("username").asText()).isEqualTo("export1");
+                assertThat(member.get("teamName").asText()).isEqualTo("exportTeam");
+            });
+            assertThat(withTeam).extracting(member -> member.get("username").asText()).doesNotContain("export2");
+        } finally {
+            tx.executeWithoutResult(status -> {
+                memberRepository.deleteAllById(List.of(ids[1], ids[2]));
+                teamRepository.deleteById(ids[0]);
+            });
+        }
+    }
+
+    // StreamingResponseBody는 비동기로 쓰이므로 asyncDispatch로 끝날 때까지 기다린 뒤 한 줄씩 파싱한다
+    private List<JsonNode> export(String url) throws Exception {
+        MvcResult started = mockMvc.perform(get(url))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        assertThat(body).endsWith("\n");
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,64 @@
+package com.study.datajpa.datasource;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * primary, replica를 서로 다른 in-memory DB로 띄워서 트랜잭션마다 실제로 어느 DB에서 실행됐는지 확인한다
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing_primary;DB_CLOSE_DELAY=-1",
+        "app.datasource.routing.replicas[0].name=replica1",
+        "app.datasource.routing.replicas[0].url=jdbc:h2:mem:routing_replica1;DB_CLOSE_DELAY=-1;INIT=RUNSCRIPT FROM 'classpath:routing-replica-schema.sql'",
+        "app.datasource.routing.replicas[1].name=replica2",
+        "app.datasource.routing.replicas[1].url=jdbc:h2:mem:routing_replica2;DB_CLOSE_DELAY=-1;INIT=RUNSCRIPT FROM 'classpath:routing-replica-schema.sql'"
+})
+@ActiveProfiles("routing")
+class DataSourceRoutingTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    ApplicationContext context;
+
+    @Test
+    @DisplayName("읽기-쓰기 트랜잭션은 primary, readOnly 트랜잭션은 replica, 읽기-쓰기 안의 readOnly는 primary")
+    void 테스트_라우팅(){
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        assertThat(readWrite.execute(status -> database())).isEqualTo("ROUTING_PRIMARY");
+        for (int i = 0; i < 4; i++) {
+            assertThat(readOnly.execute(status -> database())).isIn("ROUTING_REPLICA1", "ROUTING_REPLICA2");
+        }
+        // 바깥 트랜잭션에 참여하므로 primary (방금 쓴 데이터를 읽을 수 있도록)
+        assertThat(readWrite.execute(status -> readOnly.execute(inner -> database()))).isEqualTo("ROUTING_PRIMARY");
+    }
+
+    @Test
+    @DisplayName("routing 프로필에서는 open-in-view를 끈다")
+    void 테스트_open_in_view_꺼짐(){
+        assertThat(context.getBeanNamesForType(OpenEntityManagerInViewInterceptor.class)).isEmpty();
+    }
+
+    private String database() {
+        return ((String) em.createNativeQuery("select database()").getSingleResult()).toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,62 @@
+package com.study.datajpa.datasource;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicaSelectorTest {
+
+    @Test
+    @DisplayName("round robin: healthy한 replica를 번갈아 선택")
+    void 테스트_round_robin(){
+        ReplicaNode replica1 = replica("replica1", new AtomicInteger());
+        ReplicaNode replica2 = replica("replica2", new AtomicInteger());
+        ReplicaSelector selector = new ReplicaSelector(List.of(replica1, replica2), ReplicaSelector.Strategy.ROUND_ROBIN, Duration.ofSeconds(5));
+
+        assertThat(selector.select()).containsSame(replica1);
+        assertThat(selector.select()).containsSame(replica2);
+        assertThat(selector.select()).containsSame(replica1);
+    }
+
+    @Test
+    @DisplayName("least connections: active connection이 가장 적은 replica 선택")
+    void 테스트_least_connections(){
+        AtomicInteger active1 = new AtomicInteger(3);
+        AtomicInteger active2 = new AtomicInteger(1);
+        ReplicaNode replica1 = replica("replica1", active1);
+        ReplicaNode replica2 = replica("replica2", active2);
+        ReplicaSelector selector = new ReplicaSelector(List.of(replica1, replica2), ReplicaSelector.Strategy.LEAST_CONNECTIONS, Duration.ofSeconds(5));
+
+        assertThat(selector.select()).containsSame(replica2);
+
+        active2.set(5);
+        assertThat(selector.select()).containsSame(replica1);
+    }
+
+    @Test
+    @DisplayName("unhealthy하거나 지연이 큰 replica는 제외, 모두 제외되면 empty(primary 사용)")
+    void 테스트_fallback(){
+        ReplicaNode replica1 = replica("replica1", new AtomicInteger());
+        ReplicaNode replica2 = replica("replica2", new AtomicInteger());
+        ReplicaSelector selector = new ReplicaSelector(List.of(replica1, replica2), ReplicaSelector.Strategy.ROUND_ROBIN, Duration.ofSeconds(5));
+
+        replica1.markUnhealthy();
+        assertThat(selector.select()).containsSame(replica2);
+        assertThat(selector.select()).containsSame(replica2);
+
+        replica2.markHealthy(10_000); // 10초 지연
+        assertThat(selector.select()).isEmpty();
+
+        replica1.markHealthy(0);
+        assertThat(selector.select()).containsSame(replica1);
+    }
+
+    private static ReplicaNode replica(String name, AtomicInteger activeConnections) {
+        return new ReplicaNode(name, null, activeConnections::get);
+    }
+}
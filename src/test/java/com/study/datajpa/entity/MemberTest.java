@@ -1,8 +1,10 @@
 package com.study.datajpa.entity;
 
+import com.study.datajpa.monitoring.SqlCapture;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityTransaction;
 import jakarta.persistence.PersistenceContext;
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -84,4 +86,106 @@ class MemberTest {
         System.out.println(foundMember.getCreatedBy());
         System.out.println(foundMember.getUpdateBy());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Auditing: 같은 flush의 엔티티는 같은 시간, 같은 트랜잭션은 같은 작업자")
+    void 테스트_Auditing_context(){
+        // given
+        Member member1 = new Member("auditA");
+        Member member2 = new Member("auditB");
+
+        // when
+        em.persist(member1);
+        em.persist(member2);
+        em.flush();
+
+        // then
+        assertThat(member1.getCreatedDate()).isEqualTo(member2.getCreatedDate());
+        assertThat(member1.getCreatedBy()).isNotNull().isEqualTo(member2.getCreatedBy());
+    }
+
+    @Test
+    @DisplayName("changeTeam(): team과 team.members를 로딩하지 않고 update 한 번")
+    void 테스트_changeTeam(){
+        // given
+        Team team = new Team("bigTeam");
+        em.persist(team);
+        for (int i = 0; i < 10; i++) {
+            em.persist(new Member("bigTeamMember" + i, 20, team));
+        }
+        Member mover = new Member("mover");
+        em.persist(mover);
+        em.flush();
+        em.clear();
+
+        Member member = em.find(Member.class, mover.getId());
+        Team teamProxy = em.getReference(Team.class, team.getId());
+
+        // when
+        try (SqlCapture capture = SqlCapture.start()) {
+            member.changeTeam(teamProxy);
+            em.flush();
+
+            // then
+            capture.assertStatementCount(1); // update member
+        }
+        assertThat(Hibernate.isInitialized(teamProxy)).isFalse();
+        em.clear();
+        assertThat(em.find(Team.class, team.getId()).getMembers()).extracting(Member::getUsername).contains("mover");
+    }
+
+    @Test
+    @DisplayName("changeTeam(): 로딩된 team으로 옮겨도 team의 version은 그대로, update member 한 번")
+    void 테스트_changeTeam_로딩된_team(){
+        // given
+        Team team = new Team("loadedTeam");
+        em.persist(team);
+        em.persist(new Member("loadedTeamMember", 20, team));
+        Member mover = new Member("loadedMover");
+        em.persist(mover);
+        em.flush();
+        em.clear();
+
+        Member member = em.find(Member.class, mover.getId());
+        Team loaded = em.find(Team.class, team.getId());
+        Long version = loaded.getVersion();
+
+        // when
+        try (SqlCapture capture = SqlCapture.start()) {
+            member.changeTeam(loaded); // members가 로딩되지 않았으므로 add가 큐에 쌓인다 (컬렉션은 dirty)
+            em.flush();
+
+            // then
+            capture.assertStatementCount(1); // update member만. update team set version = ... 이 없다
+        }
+        assertThat(loaded.getVersion()).isEqualTo(version);
+    }
+
+    @Test
+    @DisplayName("changeTeam(): 로딩되지 않은 team.members에는 초기화하지 않고 add를 큐에 쌓아서, flush 전에 로딩해도 보인다")
+    void 테스트_changeTeam_컬렉션_미로딩(){
+        // given
+        Team team = new Team("queuedTeam");
+        em.persist(team);
+        em.persist(new Member("queuedMember", 20, team));
+        Member mover = new Member("queuedMover");
+        em.persist(mover);
+        em.flush();
+        em.clear();
+
+        Member member = em.find(Member.class, mover.getId());
+        Team loaded = em.find(Team.class, team.getId());
+        assertThat(Hibernate.isInitialized(loaded.getMembers())).isFalse();
+
+        // when
+        try (SqlCapture capture = SqlCapture.start()) {
+            member.changeTeam(loaded);
+
+            // then
+            capture.assertStatementCount(0); // 컬렉션을 초기화(select)하지 않는다
+        }
+        assertThat(Hibernate.isInitialized(loaded.getMembers())).isFalse();
+        // 아직 flush 전이라 DB의 team_id는 그대로지만, 초기화할 때 큐에 쌓인 add가 적용된다
+        assertThat(loaded.getMembers()).extracting(Member::getUsername).containsExactlyInAnyOrder("queuedMember", "queuedMover");
+    }
+}
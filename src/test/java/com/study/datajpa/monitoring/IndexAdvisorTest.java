@@ -0,0 +1,81 @@
+package com.study.datajpa.monitoring;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IndexAdvisorTest {
+
+    private final IndexAdvisor indexAdvisor = new IndexAdvisor();
+
+    @Test
+    @DisplayName("전체를 읽은 테이블의 where 조건 컬럼에 인덱스를 제안한다")
+    void 테스트_table_scan(){
+        String plan = """
+                SELECT
+                    "M1_0"."MEMBER_ID",
+                    "M1_0"."USERNAME"
+                FROM "PUBLIC"."MEMBER" "M1_0"
+                    /* PUBLIC.MEMBER.tableScan */
+                    /* scanCount: 1001 */
+                WHERE "M1_0"."USERNAME" = 'member1'
+                ORDER BY "M1_0"."AGE"
+                """;
+
+        assertThat(indexAdvisor.advise(plan, Set.of()))
+                .containsExactly("create index idx_member_username on MEMBER (USERNAME)");
+        // 이미 username으로 시작하는 인덱스가 있으면 제안하지 않는다
+        assertThat(indexAdvisor.advise(plan, Set.of("MEMBER.USERNAME"))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("인덱스를 사용했거나 조건 없이 전체를 읽는 테이블은 제안하지 않는다")
+    void 테스트_no_suggestion(){
+        String indexed = """
+                SELECT "M1_0"."MEMBER_ID"
+                FROM "PUBLIC"."MEMBER" "M1_0"
+                    /* PUBLIC.IDX_MEMBER_USERNAME: USERNAME = 'member1' */
+                WHERE "M1_0"."USERNAME" = 'member1'
+                """;
+        String driving = """
+                SELECT "M1_0"."MEMBER_ID", "T1_0"."NAME"
+                FROM "PUBLIC"."MEMBER" "M1_0"
+                    /* PUBLIC.MEMBER.tableScan */
+                LEFT OUTER JOIN "PUBLIC"."TEAM" "T1_0"
+                    /* PUBLIC.PRIMARY_KEY_2: TEAM_ID = M1_0.TEAM_ID */
+                    ON "T1_0"."TEAM_ID" = "M1_0"."TEAM_ID"
+                """;
+
+        assertThat(indexAdvisor.advise(indexed, Set.of())).isEmpty();
+        assertThat(indexAdvisor.advise(driving, Set.of())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("join되는 테이블은 on 조건, update는 alias 없는 컬럼을 본다")
+    void 테스트_join_update(){
+        String join = """
+                SELECT "T1_0"."TEAM_ID"
+                FROM "PUBLIC"."TEAM" "T1_0"
+                    /* PUBLIC.TEAM.tableScan */
+                INNER JOIN "PUBLIC"."MEMBER" "M1_0"
+                    /* PUBLIC.MEMBER.tableScan */
+                    /* scanCount: 500 */
+                    ON "M1_0"."TEAM_ID" = "T1_0"."TEAM_ID"
+                """;
+        String update = """
+                UPDATE "PUBLIC"."MEMBER"
+                    /* PUBLIC.MEMBER.tableScan */
+                SET
+                    "AGE" = "AGE" + 1
+                WHERE "AGE" >= 20
+                """;
+
+        assertThat(indexAdvisor.advise(join, Set.of()))
+                .containsExactly("create index idx_member_team_id on MEMBER (TEAM_ID)");
+        assertThat(indexAdvisor.advise(update, Set.of()))
+                .containsExactly("create index idx_member_age on MEMBER (AGE)");
+    }
+}
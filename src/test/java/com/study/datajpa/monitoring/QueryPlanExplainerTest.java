@@ -0,0 +1,41 @@
+package com.study.datajpa.monitoring;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class QueryPlanExplainerTest {
+
+    @Autowired
+    QueryPlanExplainer explainer;
+
+    @Test
+    @DisplayName("H2에서 실행 계획을 구하고 인덱스 없는 조건 컬럼에 인덱스를 제안한다")
+    void 테스트_explain(){
+        SlowQueryReport.Plan scan = explainer.explain("select * from team where name = 'teamA'");
+        assertThat(scan.error()).isNull();
+        assertThat(scan.plan()).contains("tableScan");
+        assertThat(scan.scannedRows()).isNotNull();
+        assertThat(scan.suggestions()).containsExactly("create index idx_team_name on TEAM (NAME)");
+
+        // member.username에는 인덱스가 있다 (Member의 @Table(indexes))
+        SlowQueryReport.Plan indexed = explainer.explain("select * from member where username = 'member1'");
+        assertThat(indexed.plan()).doesNotContain("tableScan");
+        assertThat(indexed.suggestions()).isEmpty();
+
+        // update는 analyze하지 않는다 (실제로 수정하지 않음)
+        SlowQueryReport.Plan update = explainer.explain("update team set name = 'x' where name = 'teamA'");
+        assertThat(update.error()).isNull();
+        assertThat(update.scannedRows()).isNull();
+
+        // for update도 analyze하면 락을 잡으므로 plain explain
+        SlowQueryReport.Plan locking = explainer.explain("select * from team where name = 'teamA' for update");
+        assertThat(locking.error()).isNull();
+        assertThat(locking.plan()).isNotNull();
+        assertThat(locking.scannedRows()).isNull();
+    }
+}
@@ -0,0 +1,74 @@
+package com.study.datajpa.monitoring;
+
+import com.study.datajpa.entity.Member;
+import com.study.datajpa.repository.datajpa.MemberRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class RepositoryMetricsAspectTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("리포지토리 메소드별 실행 시간, 행 수, SQL 개수 기록")
+    void 테스트_리포지토리_메트릭(){
+        // given
+        memberRepository.save(new Member("metric1", 70));
+        memberRepository.save(new Member("metric2", 70));
+
+        // when
+        memberRepository.findUser("metric1", 70);
+
+        // then
+        Timer timer = meterRegistry.find("repository.invocations")
+                .tags("repository", "MemberRepository", "method", "findUser")
+                .timer();
+        DistributionSummary rows = meterRegistry.find("repository.rows")
+                .tags("repository", "MemberRepository", "method", "findUser")
+                .summary();
+        DistributionSummary statements = meterRegistry.find("repository.sql.statements")
+                .tags("repository", "MemberRepository", "method", "findUser")
+                .summary();
+
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isGreaterThanOrEqualTo(1);
+        assertThat(rows.max()).isEqualTo(1);
+        assertThat(statements.totalAmount()).isGreaterThanOrEqualTo(1); // insert flush + select
+    }
+
+    @Test
+    @DisplayName("@Async 메소드: CompletableFuture가 아니라 future의 결과로 행 수를 기록")
+    void 테스트_비동기_리포지토리_메트릭(){
+        // given
+        DistributionSummary before = meterRegistry.find("repository.rows")
+                .tags("repository", "MemberRepository", "method", "findAsyncByUsername")
+                .summary();
+        long countBefore = before == null ? 0 : before.count();
+        double totalBefore = before == null ? 0 : before.totalAmount();
+
+        // when
+        Member member = memberRepository.findAsyncByUsername("metricAsyncNoSuchMember").join();
+
+        // then
+        DistributionSummary rows = meterRegistry.find("repository.rows")
+                .tags("repository", "MemberRepository", "method", "findAsyncByUsername")
+                .summary();
+        assertThat(member).isNull();
+        assertThat(rows.count()).isEqualTo(countBefore + 1);
+        assertThat(rows.totalAmount()).isEqualTo(totalBefore); // 없으면 0건 (future 자체를 1건으로 세지 않는다)
+    }
+}
@@ -0,0 +1,59 @@
+package com.study.datajpa.monitoring;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SqlTraceEndpointTest {
+
+    private final SqlTraceProperties properties = new SqlTraceProperties();
+    private final SqlTraceRingBuffer ringBuffer = new SqlTraceRingBuffer(16);
+    private final SqlTraceEndpoint endpoint = new SqlTraceEndpoint(properties, ringBuffer);
+
+    @Test
+    @DisplayName("POST: 넘긴 값만 바꾸고 바뀐 설정을 반환한다")
+    void 테스트_설정_변경(){
+        Map<String, Object> settings = endpoint.update(SqlTraceProperties.Mode.SLOW_ONLY, null, 100L);
+
+        assertThat(properties.getMode()).isEqualTo(SqlTraceProperties.Mode.SLOW_ONLY);
+        assertThat(properties.getSlowThreshold()).isEqualTo(Duration.ofMillis(100));
+        assertThat(properties.getSampleRate()).isEqualTo(0.01); // 넘기지 않은 값은 그대로
+        assertThat(settings)
+                .containsEntry("mode", SqlTraceProperties.Mode.SLOW_ONLY)
+                .containsEntry("slowThresholdMillis", 100L);
+
+        endpoint.update(null, 0.5, null);
+        assertThat(properties.getMode()).isEqualTo(SqlTraceProperties.Mode.SLOW_ONLY);
+        assertThat(properties.getSampleRate()).isEqualTo(0.5);
+    }
+
+    @Test
+    @DisplayName("POST: sampleRate가 0~1이 아니면 아무것도 바꾸지 않고 실패한다")
+    void 테스트_잘못된_sampleRate(){
+        assertThatThrownBy(() -> endpoint.update(SqlTraceProperties.Mode.ALL, 1.5, null))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(properties.getMode()).isEqualTo(SqlTraceProperties.Mode.SAMPLED);
+        assertThat(properties.getSampleRate()).isEqualTo(0.01);
+    }
+
+    @Test
+    @DisplayName("GET: 현재 설정과 최근 trace(최신순)")
+    @SuppressWarnings("unchecked")
+    void 테스트_조회(){
+        ringBuffer.add(new SqlTrace(Instant.now(), 1, false, "select 1", null));
+        ringBuffer.add(new SqlTrace(Instant.now(), 2, false, "select 2", null));
+
+        Map<String, Object> status = endpoint.status();
+
+        assertThat(status).containsEntry("mode", SqlTraceProperties.Mode.SAMPLED);
+        assertThat((List<SqlTrace>) status.get("recent")).extracting(SqlTrace::sql).containsExactly("select 2", "select 1");
+    }
+}
@@ -0,0 +1,87 @@
+package com.study.datajpa.monitoring;
+
+import com.p6spy.engine.common.ConnectionInformation;
+import com.p6spy.engine.common.StatementInformation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlTraceListenerTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(300);
+
+    private final SqlTraceProperties properties = new SqlTraceProperties();
+    private final SqlTraceRingBuffer ringBuffer = new SqlTraceRingBuffer(16);
+    private final SqlTraceListener listener = new SqlTraceListener(properties, ringBuffer);
+
+    SqlTraceListenerTest() {
+        properties.setSlowThreshold(Duration.ofMillis(200));
+    }
+
+    @Test
+    @DisplayName("OFF: 느린 SQL, 실패한 SQL도 기록하지 않는다")
+    void 테스트_off(){
+        properties.setMode(SqlTraceProperties.Mode.OFF);
+
+        execute("select 1", SLOW, null);
+        execute("select 2", FAST, new SQLException("boom"));
+
+        assertThat(ringBuffer.snapshot(10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("SLOW_ONLY: slowThreshold 이상만 기록한다")
+    void 테스트_slow_only(){
+        properties.setMode(SqlTraceProperties.Mode.SLOW_ONLY);
+
+        execute("select fast", FAST, null);
+        execute("select slow", SLOW, null);
+
+        assertThat(ringBuffer.snapshot(10)).singleElement().satisfies(trace -> {
+            assertThat(trace.sql()).isEqualTo("select slow");
+            assertThat(trace.slow()).isTrue();
+            assertThat(trace.elapsedMicros()).isEqualTo(300_000);
+        });
+    }
+
+    @Test
+    @DisplayName("SAMPLED: 느린 SQL과 실패한 SQL은 항상, 나머지는 sampleRate 확률로 기록한다")
+    void 테스트_sampled(){
+        properties.setMode(SqlTraceProperties.Mode.SAMPLED);
+        properties.setSampleRate(0);
+
+        execute("select fast", FAST, null);
+        execute("select slow", SLOW, null);
+        execute("select error", FAST, new SQLException("boom"));
+
+        assertThat(ringBuffer.snapshot(10)).extracting(SqlTrace::sql).containsExactly("select error", "select slow");
+        assertThat(ringBuffer.snapshot(1).get(0).error()).isEqualTo("boom");
+
+        properties.setSampleRate(1);
+        execute("select sampled", FAST, null);
+
+        assertThat(ringBuffer.snapshot(1)).extracting(SqlTrace::sql).containsExactly("select sampled");
+    }
+
+    @Test
+    @DisplayName("ALL: 전부 기록한다")
+    void 테스트_all(){
+        properties.setMode(SqlTraceProperties.Mode.ALL);
+
+        execute("select fast", FAST, null);
+
+        assertThat(ringBuffer.snapshot(10)).singleElement().satisfies(trace -> assertThat(trace.slow()).isFalse());
+    }
+
+    private void execute(String sql, long elapsedNanos, SQLException e) {
+        StatementInformation statement = new StatementInformation(ConnectionInformation.fromTestConnection(null));
+        statement.setStatementQuery(sql);
+        listener.onAfterAnyExecute(statement, elapsedNanos, e);
+    }
+}
@@ -0,0 +1,42 @@
+package com.study.datajpa.monitoring;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlTraceRingBufferTest {
+
+    private final SqlTraceRingBuffer ringBuffer = new SqlTraceRingBuffer(3);
+
+    @Test
+    @DisplayName("비어 있으면 빈 목록, 다 차기 전에는 넣은 것만 최신순")
+    void 테스트_채우기_전(){
+        assertThat(ringBuffer.snapshot(10)).isEmpty();
+
+        add("sql1");
+        add("sql2");
+
+        assertThat(ringBuffer.snapshot(10)).extracting(SqlTrace::sql).containsExactly("sql2", "sql1");
+    }
+
+    @Test
+    @DisplayName("용량을 넘으면 가장 오래된 trace부터 덮어쓰고, snapshot은 최신순으로 limit개까지")
+    void 테스트_wraparound(){
+        for (int i = 1; i <= 5; i++) {
+            add("sql" + i);
+        }
+
+        assertThat(ringBuffer.snapshot(10)).extracting(SqlTrace::sql).containsExactly("sql5", "sql4", "sql3");
+        assertThat(ringBuffer.snapshot(2)).extracting(SqlTrace::sql).containsExactly("sql5", "sql4");
+
+        add("sql6");
+        assertThat(ringBuffer.snapshot(10)).extracting(SqlTrace::sql).containsExactly("sql6", "sql5", "sql4");
+    }
+
+    private void add(String sql) {
+        ringBuffer.add(new SqlTrace(Instant.now(), 1, false, sql, null));
+    }
+}
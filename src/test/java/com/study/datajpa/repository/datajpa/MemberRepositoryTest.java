@@ -1,9 +1,19 @@
 package com.study.datajpa.repository.datajpa;
 
+import com.study.datajpa.dto.MemberCursor;
+import com.study.datajpa.dto.MemberDTO;
 import com.study.datajpa.dto.PMemberDTO;
 import com.study.datajpa.entity.Member;
 import com.study.datajpa.entity.Team;
+import com.study.datajpa.monitoring.SqlBudget;
+import com.study.datajpa.monitoring.SqlBudgetExceededException;
+import com.study.datajpa.monitoring.SqlBudgetProperties;
+import com.study.datajpa.monitoring.SqlCapture;
+import com.study.datajpa.monitoring.SqlStatementScope;
+import com.study.datajpa.support.FanOut;
 import jakarta.persistence.EntityManager;
+import org.hibernate.SessionEventListener;
+import org.hibernate.engine.spi.SessionImplementor;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,13 +23,23 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.test.annotation.Rollback;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 
 @SpringBootTest
@@ -162,6 +182,41 @@ class MemberRepositoryTest {
         }
     }
 
+    @Test
+    @DisplayName("StatelessSession projection: 엔티티를 영속성 컨텍스트에 올리지 않는다")
+    void 테스트_projection(){
+        // given
+        Team team = teamRepository.save(new Team("projectionTeam"));
+        memberRepository.save(new Member("projectionMember", 124, team));
+        em.flush(); // StatelessSession은 flush하지 않는다
+        em.clear();
+        // 현재 세션(트랜잭션의 EntityManager)을 통해 실행된 SQL 수. StatelessSession은 별도의 세션이므로 여기에 세지 않는다
+        AtomicInteger sessionStatements = new AtomicInteger();
+        em.unwrap(SessionImplementor.class).addEventListeners(new SessionEventListener() {
+            @Override
+            public void jdbcExecuteStatementStart() {
+                sessionStatements.incrementAndGet();
+            }
+        });
+
+        // when
+        List<PMemberDTO> pMemberDTOs;
+        List<MemberDTO> memberDTOs;
+        List<String> usernames;
+        try (SqlCapture capture = SqlCapture.start()) {
+            pMemberDTOs = memberRepository.findMemberDTOProjection();
+            memberDTOs = memberRepository.findMemberDTOProjectionByAge(124);
+            usernames = memberRepository.findUsernamesProjection();
+
+            // then: 쿼리 3개는 실행됐지만 현재 세션을 거치지 않았다 (같은 쿼리를 em.createQuery()로 실행하면 3)
+            capture.assertStatementCount(3);
+        }
+        assertThat(sessionStatements).hasValue(0);
+        assertThat(pMemberDTOs).extracting(PMemberDTO::getTeamName).contains("projectionTeam");
+        assertThat(memberDTOs).extracting(MemberDTO::getUsername).contains("projectionMember");
+        assertThat(usernames).contains("projectionMember");
+    }
+
     @Test
     @DisplayName("@Query테스트, 메소드: findByNames()")
     void 테스트_findByNames(){
@@ -178,6 +233,66 @@ class MemberRepositoryTest {
         assertThat(results.size()).isEqualTo(2);
     }
 
+    @Test
+    @DisplayName("findByNames(): IN 절 chunking")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // 병렬 조회는 별도 커넥션이므로 커밋된 데이터만 보인다
+    void 테스트_findByNames_chunk(){
+        // given: chunk 크기(512)를 넘는 개수
+        List<Member> members = IntStream.range(0, 1200)
+                .mapToObj(i -> new Member("in-chunk-" + i, 82))
+                .toList();
+        memberRepository.saveAllInBatch(members);
+
+        try {
+            List<String> names = new ArrayList<>(members.stream().map(Member::getUsername).toList());
+            names.add("in-chunk-0"); // 중복은 한 번만 조회
+
+            // when
+            List<Member> results = memberRepository.findByNames(names);
+            ExecutorService executor = Executors.newFixedThreadPool(2);
+            List<Member> parallelResults = memberRepository.findByNames(names, executor);
+            executor.shutdown();
+
+            // then
+            assertThat(results).hasSize(1200);
+            assertThat(parallelResults).extracting(Member::getUsername)
+                    .containsExactlyInAnyOrderElementsOf(results.stream().map(Member::getUsername).toList());
+        } finally {
+            // 커밋된 데이터이므로 같은 DB를 쓰는 다른 테스트(count, 벌크 update)에 영향을 주지 않도록 지운다
+            memberRepository.deleteAllByIdInBatch(members.stream().map(Member::getId).toList());
+        }
+    }
+
+    @Test
+    @DisplayName("비동기 조회: CompletableFuture + FanOut")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // 비동기 조회는 다른 스레드의 트랜잭션이므로 커밋된 데이터만 보인다
+    void 테스트_async(){
+        // given
+        Team team = teamRepository.save(new Team("asyncTeam"));
+        Member saved = memberRepository.save(new Member("asyncMember", 83, team));
+
+        try {
+            // when
+            CompletableFuture<Member> member = memberRepository.findAsyncByUsername("asyncMember");
+            CompletableFuture<Page<Member>> page = memberRepository.findAsyncPageByAge(83, PageRequest.of(0, 10));
+            CompletableFuture<List<PMemberDTO>> dtos = memberRepository.findAsyncMemberDTO();
+            FanOut.awaitAll(Duration.ofSeconds(5), member, page, dtos);
+
+            // then
+            assertThat(member.join().getUsername()).isEqualTo("asyncMember");
+            assertThat(page.join().getContent()).extracting(Member::getUsername).contains("asyncMember");
+            assertThat(dtos.join()).anySatisfy(dto -> {
+                assertThat(dto.getId()).isEqualTo(saved.getId());
+                assertThat(dto.getUsername()).isEqualTo("asyncMember");
+                assertThat(dto.getTeamName()).isEqualTo("asyncTeam");
+            });
+        } finally {
+            // 커밋된 데이터이므로 다른 테스트(벌크 update의 개수 등)에 영향을 주지 않도록 지운다
+            memberRepository.deleteById(saved.getId());
+            teamRepository.deleteById(team.getId());
+        }
+    }
+
     @Test
     @DisplayName("JPA 반환 타입 테스트 - 컬렉션 리턴")
     void 테스트_findMembersByUsername(){
@@ -267,6 +382,30 @@ class MemberRepositoryTest {
         assertThat(slice.hasNext()).isTrue();
     }
 
+    @Test
+    @DisplayName("keyset 페이징 테스트")
+    void 테스트_keyset_페이징(){
+        // given
+        int age = 33;
+        memberRepository.save(new Member("member1", age));
+        memberRepository.save(new Member("member2", age));
+        memberRepository.save(new Member("member2", age)); // username이 같아도 id로 순서가 정해진다
+        memberRepository.save(new Member("member3", age));
+        memberRepository.save(new Member("member4", age));
+        PageRequest pageRequest = PageRequest.ofSize(3);
+
+        // when
+        Slice<Member> first = memberRepository.findKeysetByAge(age, pageRequest);
+        MemberCursor cursor = MemberCursor.decode(MemberCursor.of(first.getContent().get(2)).encode());
+        Slice<Member> second = memberRepository.findKeysetByAgeAfter(age, cursor.getUsername(), cursor.getId(), pageRequest);
+
+        // then
+        assertThat(first.getContent()).extracting(Member::getUsername).containsExactly("member4", "member3", "member2");
+        assertThat(first.hasNext()).isTrue();
+        assertThat(second.getContent()).extracting(Member::getUsername).containsExactly("member2", "member1");
+        assertThat(second.hasNext()).isFalse();
+    }
+
     @Test
     @DisplayName("Spring Data JPA 페이징 테스트-Page최적화")
     void 테스트_Spring_Data_JPA_페이징_Page_최적화(){
@@ -339,6 +478,50 @@ class MemberRepositoryTest {
         assertThat(resultCount).isEqualTo(5);
     }
 
+    @Test
+    @DisplayName("2차 캐시: 벌크 연산 후에 캐시된 member를 읽지 않는다")
+    void 테스트_2차캐시_bulk_update(){
+        // given
+        Member member = memberRepository.save(new Member("cachedMember", 60));
+        em.flush();
+        em.clear();
+        memberRepository.findById(member.getId()); // 2차 캐시에 적재
+
+        // when
+        memberRepository.updateAgeInBulk(60); // member region이 비워진다
+
+        // then
+        Member foundMember = memberRepository.findById(member.getId()).get();
+        assertThat(foundMember.getAge()).isEqualTo(61);
+    }
+
+    @Test
+    @DisplayName("벌크 연산: 영향받은 엔티티만 refresh/evict")
+    void 테스트_bulk_update_targeted(){
+        // given
+        Team team = teamRepository.save(new Team("bulkTeam"));
+        Member target = memberRepository.save(new Member("bulkTarget", 95, team));
+        Member other = memberRepository.save(new Member("bulkOther", 15, team));
+        em.flush();
+
+        // when: REFRESH
+        memberRepository.updateAgeInBulk(95, BulkUpdateMode.REFRESH);
+
+        // then: 대상은 새 값으로 갱신되고, 나머지는 영속성 컨텍스트에 그대로 남는다
+        assertThat(em.contains(target)).isTrue();
+        assertThat(target.getAge()).isEqualTo(96);
+        assertThat(em.contains(other)).isTrue();
+        assertThat(em.contains(team)).isTrue();
+
+        // when: EVICT
+        memberRepository.updateAgeInBulk(96, BulkUpdateMode.EVICT);
+
+        // then
+        assertThat(em.contains(target)).isFalse();
+        assertThat(em.contains(other)).isTrue();
+        assertThat(memberRepository.findById(target.getId()).get().getAge()).isEqualTo(97);
+    }
+
     @Test
     @DisplayName("N + 1문제 구현")
     void 테스트_엔플러스1_문제(){
@@ -422,6 +605,69 @@ class MemberRepositoryTest {
         }
     }
 
+    @Test
+    @DisplayName("N + 1 감지: SqlCapture로 SQL 개수 검증")
+    void 테스트_엔플러스1_감지(){
+        Team teamA = new Team("TeamA");
+        Team teamB = new Team("TeamB");
+        Team teamC = new Team("TeamC");
+        teamRepository.save(teamA);
+        teamRepository.save(teamB);
+        teamRepository.save(teamC);
+        memberRepository.save(new Member("member1", 81, teamA));
+        memberRepository.save(new Member("member2", 81, teamB));
+        memberRepository.save(new Member("member3", 81, teamC));
+
+        em.flush();
+        em.clear();
+
+        // member 조회 + team lazy loading
+        // @BatchSize(Team) 덕분에 team마다 select가 반복되지 않고 IN 쿼리 한 번으로 초기화된다
+        em.getEntityManagerFactory().getCache().evict(Team.class); // 2차 캐시에서 읽히지 않도록
+        try(SqlCapture capture = SqlCapture.start()){
+            memberRepository.findPageByAge(81, PageRequest.of(0, 10))
+                    .forEach(member -> member.getTeam().getName());
+            assertThat(capture.selectCount()).isLessThanOrEqualTo(3); // member + count + team(IN)
+            capture.assertNoRepeatedSelects();
+        }
+
+        // 감지기 자체 검증: id마다 따로 조회하면 같은 select가 반복되고, SqlCapture가 이를 잡아낸다
+        List<Long> ids = memberRepository.findPageByAge(81, PageRequest.of(0, 3)).map(Member::getId).getContent(); // 트랜잭션 예산(반복 5회) 이하
+        try(SqlCapture capture = SqlCapture.start()){
+            for (Long id : ids) {
+                em.clear();
+                em.getEntityManagerFactory().getCache().evict(Member.class); // 2차 캐시에서 읽히지 않도록
+                memberRepository.findById(id);
+            }
+            assertThat(capture.repeatedSelects()).hasSize(1).containsValue(ids.size());
+            assertThatThrownBy(capture::assertNoRepeatedSelects)
+                    .isInstanceOf(AssertionError.class)
+                    .hasMessageContaining("possible N + 1");
+        }
+
+        em.clear();
+
+        // fetch join: 한 번에 다 가져온다
+        try(SqlCapture capture = SqlCapture.start()){
+            memberRepository.findMemberFetchJoin().forEach(member -> member.getTeam().getName());
+            capture.assertSelectCount(1).assertNoRepeatedSelects();
+        }
+    }
+
+    @Test
+    @DisplayName("N + 1 감지: SQL 예산(fail)을 넘으면 SqlBudgetExceededException")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // 예외로 테스트 트랜잭션이 rollback-only가 되지 않도록
+    void 테스트_엔플러스1_예산_초과(){
+        SqlBudget budget = new SqlBudget(100, 2, SqlBudgetProperties.Mode.FAIL);
+        try(SqlStatementScope scope = SqlStatementScope.open("test", budget)){
+            memberRepository.findMemberListByUsername("budgetMember");
+            memberRepository.findMemberListByUsername("budgetMember");
+            assertThatThrownBy(() -> memberRepository.findMemberListByUsername("budgetMember"))
+                    .isInstanceOf(SqlBudgetExceededException.class)
+                    .hasMessageContaining("possible N + 1");
+        }
+    }
+
     @Test
     @DisplayName("JPA Hint테스트")
     void 테스트_JPA_hint(){
@@ -450,4 +696,24 @@ class MemberRepositoryTest {
         assertThat(memberCustom.size() > 0).isTrue();
     }
 
-}
\ No newline at end of file
+    @Test
+    @DisplayName("사용자 정의 리파지토리: Stream 조회 테스트")
+    void 테스트_streamCustomMember(){
+        // given
+        Member held = memberRepository.save(new Member("stream1", 50));
+        memberRepository.save(new Member("stream2", 50));
+
+        // when
+        List<Member> streamed;
+        try(Stream<Member> members = memberRepository.streamCustomMember()){
+            streamed = members.toList();
+        }
+
+        // then
+        assertThat(streamed).extracting(Member::getUsername).contains("stream1", "stream2");
+        // 스트림의 member는 영속성 컨텍스트에 들어가지 않고, 호출한 쪽이 들고 있던 member는 그대로 영속 상태
+        assertThat(streamed).noneMatch(em::contains);
+        assertThat(em.contains(held)).isTrue();
+    }
+
+}
@@ -8,6 +8,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -122,6 +123,27 @@ class MemberJpaRepositoryTest {
         assertThat(totalCount).isEqualTo(5);
     }
 
+    @Test
+    @DisplayName("JPA keyset 페이징 테스트")
+    void 테스트_JPA_keyset_페이징() {
+        // given
+        int age = 44;
+        memberJpaRepository.save(new Member("member1", age));
+        memberJpaRepository.save(new Member("member2", age));
+        memberJpaRepository.save(new Member("member3", age));
+        memberJpaRepository.save(new Member("member4", age));
+        memberJpaRepository.save(new Member("member5", age));
+
+        // when
+        List<Member> first = memberJpaRepository.findByCursor(age, null, null, 3);
+        Member last = first.get(first.size() - 1);
+        List<Member> second = memberJpaRepository.findByCursor(age, last.getUsername(), last.getId(), 3);
+
+        // then
+        assertThat(first).extracting(Member::getUsername).containsExactly("member5", "member4", "member3");
+        assertThat(second).extracting(Member::getUsername).containsExactly("member2", "member1");
+    }
+
     @Test
     @DisplayName("벌크 업데이트")
     void 테스트_bulk_update(){
@@ -139,4 +161,25 @@ class MemberJpaRepositoryTest {
         // then
         assertThat(resultCount).isEqualTo(5);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("대량 insert - batch_size마다 flush + 그 batch만 detach")
+    void 테스트_saveAllInBatch(){
+        // given
+        int age = 777;
+        Member held = memberJpaRepository.save(new Member("batchHeld", 1));
+        List<Member> members = new ArrayList<>();
+        for(int i = 0; i < 250; i++){
+            members.add(new Member("batch" + i, age));
+        }
+
+        // when
+        int savedCount = memberJpaRepository.saveAllInBatch(members);
+
+        // then
+        assertThat(savedCount).isEqualTo(250);
+        assertThat(members).noneMatch(memberJpaRepository.getEm()::contains); // batch마다 detach되어 준영속 상태
+        assertThat(memberJpaRepository.getEm().contains(held)).isTrue(); // 호출한 쪽이 들고 있던 member는 그대로
+        assertThat(memberJpaRepository.getTotalCount(age)).isEqualTo(250);
+    }
+}
@@ -0,0 +1,44 @@
+package com.study.datajpa.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UsernameSearchIndexTest {
+
+    @Test
+    @DisplayName("접두사 일치가 먼저, 그 다음 부분 일치 (username 순, 대소문자 무시)")
+    void 테스트_search(){
+        UsernameSearchIndex index = new UsernameSearchIndex();
+        index.put(1L, "memberB");
+        index.put(2L, "memberA");
+        index.put(3L, "teamMember");
+        index.put(4L, "other");
+        index.put(5L, "memberA"); // 같은 username
+
+        assertThat(index.search("MEM", 10)).containsExactly(2L, 5L, 1L, 3L);
+        assertThat(index.search("mem", 2)).containsExactly(2L, 5L);
+        assertThat(index.search("amm", 10)).containsExactly(3L);
+        assertThat(index.search("me", 10)).containsExactly(2L, 5L, 1L); // 3글자 미만은 접두사만
+        assertThat(index.search("xyz", 10)).isEmpty();
+        assertThat(index.search(" ", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("username 변경, 삭제가 반영된다")
+    void 테스트_update_remove(){
+        UsernameSearchIndex index = new UsernameSearchIndex();
+        index.put(1L, "memberA");
+        index.put(2L, "memberB");
+
+        index.put(1L, "renamed");
+        assertThat(index.search("member", 10)).containsExactly(2L);
+        assertThat(index.search("named", 10)).containsExactly(1L);
+
+        index.remove(2L);
+        assertThat(index.search("mem", 10)).isEmpty();
+        assertThat(index.search("emb", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(1);
+    }
+}
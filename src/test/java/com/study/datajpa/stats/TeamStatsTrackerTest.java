@@ -0,0 +1,116 @@
+package com.study.datajpa.stats;
+
+import com.study.datajpa.entity.Member;
+import com.study.datajpa.entity.Team;
+import com.study.datajpa.entity.TeamStats;
+import com.study.datajpa.repository.datajpa.MemberRepository;
+import com.study.datajpa.repository.datajpa.TeamRepository;
+import com.study.datajpa.repository.datajpa.TeamStatsRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// team_stats는 커밋 직전에 반영되므로 트랜잭션을 직접 커밋한다 (@Transactional을 붙이지 않음)
+@SpringBootTest
+class TeamStatsTrackerTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    TeamStatsRepository teamStatsRepository;
+
+    @Autowired
+    TeamStatsMaintenance teamStatsMaintenance;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    EntityManager em;
+
+    @Test
+    @DisplayName("team_stats: insert/벌크 update/delete 증분 갱신 + reconcile")
+    void 테스트_team_stats(){
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        // insert
+        Long[] ids = tx.execute(status -> {
+            Team team = teamRepository.save(new Team("statsTeam"));
+            memberRepository.save(new Member("stats1", 1010, team));
+            memberRepository.save(new Member("stats2", 1020, team));
+            Member member3 = memberRepository.save(new Member("stats3", 1030, team));
+            return new Long[]{team.getId(), member3.getId()};
+        });
+        Long teamId = ids[0];
+        assertStats(teamId, 3, 3060, 1010, 1030, false);
+
+        // 벌크 update: 1020 이상 + 1
+        tx.executeWithoutResult(status -> memberRepository.updateAgeInBulk(1020));
+        assertStats(teamId, 3, 3062, 1010, 1031, false);
+
+        // delete: 최댓값이 빠지면 stale
+        tx.executeWithoutResult(status -> memberRepository.deleteById(ids[1]));
+        assertStats(teamId, 2, 2031, 1010, 1031, true);
+
+        teamStatsMaintenance.reconcile();
+        assertStats(teamId, 2, 2031, 1010, 1021, false);
+
+        // 다른 테스트에 영향을 주지 않도록 정리 (team을 삭제하면 집계 행도 삭제된다)
+        tx.executeWithoutResult(status -> {
+            memberRepository.deleteAll(memberRepository.findByNames(List.of("stats1", "stats2")));
+            teamRepository.deleteById(teamId);
+        });
+        assertThat(teamStatsRepository.findById(teamId)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("team_stats 행이 없는 team은 변경량이 아니라 member 테이블에서 다시 계산한다")
+    void 테스트_team_stats_행_없음(){
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Long teamId = tx.execute(status -> {
+            Team team = teamRepository.save(new Team("statsMissingTeam"));
+            memberRepository.save(new Member("statsMissing1", 2010, team));
+            memberRepository.save(new Member("statsMissing2", 2020, team));
+            return team.getId();
+        });
+        // 집계 도입 전 데이터처럼 행을 지운다
+        tx.executeWithoutResult(status -> em.createNativeQuery("delete from team_stats where team_id = :teamId")
+                .setParameter("teamId", teamId)
+                .executeUpdate());
+
+        tx.executeWithoutResult(status -> memberRepository.save(new Member("statsMissing3", 2030, teamRepository.findById(teamId).orElseThrow())));
+        assertStats(teamId, 3, 6060, 2010, 2030, false);
+
+        tx.executeWithoutResult(status -> em.createNativeQuery("delete from team_stats where team_id = :teamId")
+                .setParameter("teamId", teamId)
+                .executeUpdate());
+        assertThat(teamStatsMaintenance.initializeMissing()).isGreaterThanOrEqualTo(1);
+        assertStats(teamId, 3, 6060, 2010, 2030, false);
+
+        tx.executeWithoutResult(status -> {
+            memberRepository.deleteAll(memberRepository.findByNames(List.of("statsMissing1", "statsMissing2", "statsMissing3")));
+            teamRepository.deleteById(teamId);
+        });
+    }
+
+    private void assertStats(Long teamId, long count, long ageSum, int minAge, int maxAge, boolean stale) {
+        TeamStats stats = teamStatsRepository.findById(teamId).orElseThrow();
+        assertThat(stats.getMemberCount()).isEqualTo(count);
+        assertThat(stats.getAgeSum()).isEqualTo(ageSum);
+        assertThat(stats.getMinAge()).isEqualTo(minAge);
+        assertThat(stats.getMaxAge()).isEqualTo(maxAge);
+        assertThat(stats.isExtremaStale()).isEqualTo(stale);
+    }
+}
@@ -0,0 +1,65 @@
+package com.study.datajpa.support;
+
+import com.study.datajpa.entity.Member;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 바깥/안쪽 트랜잭션을 직접 열어야 하므로 @Transactional을 붙이지 않는다
+@SpringBootTest
+class AuditingClockTest {
+
+    @Autowired
+    AuditingClock auditingClock;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    EntityManager em;
+
+    @Test
+    @DisplayName("flush 시간은 세션별: REQUIRES_NEW 안쪽 트랜잭션은 바깥 트랜잭션의 시간을 쓰지 않고, flush가 끝나면 새 시간")
+    void 테스트_세션별_flush_시간(){
+        TransactionTemplate outer = new TransactionTemplate(transactionManager);
+        TransactionTemplate inner = new TransactionTemplate(transactionManager);
+        inner.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        outer.executeWithoutResult(status -> {
+            LocalDateTime outerTime = auditingClock.now();
+            Member member = new Member("auditingClock");
+            em.persist(member);
+            assertThat(member.getCreatedDate()).isEqualTo(outerTime); // Spring Data Auditing(DateTimeProvider)도 같은 시간
+
+            sleep();
+            LocalDateTime innerTime = inner.execute(innerStatus -> auditingClock.now());
+            assertThat(innerTime).isAfter(outerTime);
+            assertThat(auditingClock.now()).isEqualTo(outerTime); // 안쪽 트랜잭션이 끝나도 바깥 세션의 시간은 그대로
+
+            em.flush();
+            sleep();
+            assertThat(auditingClock.now()).isAfter(outerTime);
+
+            status.setRollbackOnly();
+        });
+        assertThat(AuditingFlushInterceptor.current()).isNull(); // 트랜잭션이 끝나면 스레드에 남지 않는다
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(5);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.study.datajpa.support;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FanOutTest {
+
+    @Test
+    @DisplayName("모두 끝나면 바로 반환하고, 결과는 join()으로 꺼낸다")
+    void 테스트_완료(){
+        CompletableFuture<String> first = CompletableFuture.completedFuture("a");
+        CompletableFuture<Integer> second = CompletableFuture.supplyAsync(() -> 1);
+
+        FanOut.awaitAll(Duration.ofSeconds(5), first, second);
+
+        assertThat(first.join()).isEqualTo("a");
+        assertThat(second.join()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("timeout: cause가 TimeoutException인 CompletionException, 나머지 future는 취소 상태")
+    void 테스트_timeout(){
+        CompletableFuture<String> done = CompletableFuture.completedFuture("a");
+        CompletableFuture<String> never = new CompletableFuture<>();
+
+        assertThatThrownBy(() -> FanOut.awaitAll(Duration.ofMillis(50), done, never))
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(TimeoutException.class);
+        assertThat(never).isCancelled();
+    }
+
+    @Test
+    @DisplayName("하나라도 실패하면 나머지를 기다리지 않고 그 예외로 실패한다")
+    void 테스트_실패(){
+        CompletableFuture<String> failed = CompletableFuture.failedFuture(new IllegalStateException("boom"));
+        CompletableFuture<String> never = new CompletableFuture<>();
+
+        assertThatThrownBy(() -> FanOut.awaitAll(Duration.ofSeconds(5), failed, never))
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(never).isCancelled();
+    }
+}
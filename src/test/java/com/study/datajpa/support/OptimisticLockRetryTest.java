@@ -0,0 +1,98 @@
+package com.study.datajpa.support;
+
+import com.study.datajpa.entity.Member;
+import com.study.datajpa.repository.datajpa.MemberRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 여러 스레드가 각자 트랜잭션을 커밋해야 하므로 @Transactional을 붙이지 않는다
+@SpringBootTest
+class OptimisticLockRetryTest {
+
+    private static final int THREADS = 4;
+    private static final int INCREMENTS_PER_THREAD = 5;
+    private static final int MAX_ATTEMPTS = 100; // 4개 스레드가 계속 충돌하므로 기본값(5)보다 넉넉하게
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("낙관적 락 + 재시도: 동시에 수정해도 lost update가 없다")
+    void 테스트_optimistic_lock_retry() throws Exception {
+        // given
+        Long id = memberRepository.save(new Member("optimistic", 0)).getId();
+        // 설정(app.optimistic-lock-retry.max-attempts)을 바꾸면 테스트 컨텍스트가 하나 더 뜨므로 직접 만든다
+        OptimisticLockRetry optimisticLockRetry = new OptimisticLockRetry(transactionManager, MAX_ATTEMPTS,
+                Duration.ofMillis(10), Duration.ofMillis(500));
+
+        try {
+            // when
+            runConcurrently(() -> optimisticLockRetry.executeWithoutResult(() -> {
+                Member member = memberRepository.findById(id).orElseThrow();
+                member.setAge(member.getAge() + 1);
+            }));
+
+            // then
+            Member member = memberRepository.findById(id).orElseThrow();
+            assertThat(member.getAge()).isEqualTo(THREADS * INCREMENTS_PER_THREAD);
+            assertThat(member.getVersion()).isEqualTo(THREADS * INCREMENTS_PER_THREAD);
+        } finally {
+            // 커밋된 데이터라 롤백되지 않으므로 직접 지운다
+            memberRepository.deleteById(id);
+        }
+    }
+
+    @Test
+    @DisplayName("비관적 락: select for update로 순서대로 수정한다")
+    void 테스트_pessimistic_lock() throws Exception {
+        // given
+        Long id = memberRepository.save(new Member("pessimistic", 0)).getId();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        try {
+            // when
+            runConcurrently(() -> tx.executeWithoutResult(status -> {
+                Member member = memberRepository.findByIdForUpdate(id).orElseThrow();
+                member.setAge(member.getAge() + 1);
+            }));
+
+            // then
+            assertThat(memberRepository.findById(id).orElseThrow().getAge()).isEqualTo(THREADS * INCREMENTS_PER_THREAD);
+        } finally {
+            memberRepository.deleteById(id);
+        }
+    }
+
+    private static void runConcurrently(Runnable increment) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(CompletableFuture.runAsync(() -> {
+                    for (int j = 0; j < INCREMENTS_PER_THREAD; j++) {
+                        increment.run();
+                    }
+                }, executor));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get();
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,3 @@
+-- DataSourceRoutingTest의 replica DB. Hibernate(ddl-auto)는 primary에만 스키마를 만들므로
+-- 기동할 때 실행되는 readOnly 조회(MemberSearch.rebuild)에 필요한 테이블만 만든다
+create table if not exists member (member_id bigint primary key, username varchar(255));